@@ -24,8 +24,11 @@
  */
 package net.runelite.cache;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import net.runelite.cache.fs.Store;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -40,11 +43,13 @@ public class Cache
 		Options options = new Options();
 
 		options.addOption("c", "cache", true, "cache base");
-		options.addOption("t", "tree", true, "tree base");
+		options.addOption("t", "tree", true, "tree base, or a .zip file containing the tree");
 
 		options.addOption("u", "unpack", false, "unpack cache");
 		options.addOption("p", "pack", false, "pack cache");
 
+		options.addOption(null, "threads", true, "number of threads to load the cache or tree with");
+
 		options.addOption(null, "items", true, "directory to dump items to");
 		options.addOption(null, "npcs", true, "directory to dump npcs to");
 		options.addOption(null, "objects", true, "directory to dump objects to");
@@ -65,6 +70,7 @@ public class Cache
 
 		String cache = cmd.getOptionValue("cache");
 		String tree = cmd.getOptionValue("tree");
+		int threads = Integer.parseInt(cmd.getOptionValue("threads", "1"));
 
 		if (cmd.hasOption("p"))
 		{
@@ -77,7 +83,7 @@ public class Cache
 			System.out.print("Packing tree from " + tree + " to " + cache + "...");
 
 			Store treeBase = new Store(new File(cache));
-			treeBase.loadTree(new File(tree));
+			loadTree(treeBase, tree, threads);
 			treeBase.save();
 
 			System.out.println(" done!");
@@ -94,9 +100,10 @@ public class Cache
 			System.out.print("Unpacking cache from " + cache + " to " + tree + "...");
 
 			Store treeBase = new Store(new File(cache));
-			treeBase.load();
+			treeBase.setMapped(true);
+			load(treeBase, threads);
 
-			treeBase.saveTree(new File(tree));
+			saveTree(treeBase, tree, threads);
 
 			System.out.println(" done!");
 			return;
@@ -109,7 +116,7 @@ public class Cache
 			return;
 		}
 
-		Store store = loadStore(cache, tree);
+		Store store = loadStore(cache, tree, threads);
 
 		if (cmd.hasOption("items"))
 		{
@@ -169,23 +176,88 @@ public class Cache
 		}
 	}
 
-	private static Store loadStore(String cache, String tree) throws IOException
+	private static Store loadStore(String cache, String tree, int threads) throws IOException
 	{
 		if (cache == null)
 		{
 			Store store = new Store(new File(tree));
-			store.loadTree(new File(tree));
+			loadTree(store, tree, threads);
 			return store;
 		}
 		else
 		{
 			Store store = new Store(new File(cache));
-			store.load();
+			store.setMapped(true);
+			load(store, threads);
 			return store;
 		}
 
 	}
 
+	private static void loadTree(Store store, String tree, int threads) throws IOException
+	{
+		ExecutorService executor = newExecutor(threads);
+		try
+		{
+			if (tree.endsWith(".zip"))
+			{
+				store.loadTreeZip(new File(tree), executor);
+			}
+			else
+			{
+				store.loadTree(new File(tree).toPath(), executor);
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	private static void saveTree(Store store, String tree, int threads) throws IOException
+	{
+		ExecutorService executor = newExecutor(threads);
+		try
+		{
+			if (tree.endsWith(".zip"))
+			{
+				store.saveTreeZip(new File(tree), executor);
+			}
+			else
+			{
+				store.saveTree(new File(tree).toPath(), executor);
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	private static ExecutorService newExecutor(int threads)
+	{
+		return threads <= 1 ? MoreExecutors.newDirectExecutorService() : Executors.newFixedThreadPool(threads);
+	}
+
+	private static void load(Store store, int threads) throws IOException
+	{
+		if (threads <= 1)
+		{
+			store.load();
+			return;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			store.load(executor);
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
 	private static void dumpItems(Store store, File itemdir) throws IOException
 	{
 		ItemManager dumper = new ItemManager(store);
@@ -31,7 +31,6 @@ import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -67,9 +66,9 @@ public class MapImageDumper
 
 	private final Store store;
 
-	private final List<UnderlayDefinition> underlays = new ArrayList<>();
-	private final List<OverlayDefinition> overlays = new ArrayList<>();
-	private final List<TextureDefinition> textures = new ArrayList<>();
+	private final Map<Integer, UnderlayDefinition> underlays = new HashMap<>();
+	private final Map<Integer, OverlayDefinition> overlays = new HashMap<>();
+	private final Map<Integer, TextureDefinition> textures = new HashMap<>();
 	private final Multimap<Integer, SpriteDefinition> sprites = HashMultimap.create();
 	private final Map<SpriteDefinition, Integer> averageColors = new HashMap<>();
 	private final Map<Integer, Image> scaledMapIcons = new HashMap<>();
@@ -367,20 +366,13 @@ public class MapImageDumper
 			UnderlayLoader loader = new UnderlayLoader();
 			UnderlayDefinition underlay = loader.load(file.getFileId(), file.getContents());
 
-			underlays.add(underlay);
+			underlays.put(underlay.getId(), underlay);
 		}
 	}
 
 	private UnderlayDefinition findUnderlay(int id)
 	{
-		for (UnderlayDefinition u : underlays)
-		{
-			if (u.getId() == id)
-			{
-				return u;
-			}
-		}
-		return null;
+		return underlays.get(id);
 	}
 
 	private void loadOverlays(Store store)
@@ -393,20 +385,13 @@ public class MapImageDumper
 			OverlayLoader loader = new OverlayLoader();
 			OverlayDefinition underlay = loader.load(file.getFileId(), file.getContents());
 
-			overlays.add(underlay);
+			overlays.put(underlay.getId(), underlay);
 		}
 	}
 
 	private OverlayDefinition findOverlay(int id)
 	{
-		for (OverlayDefinition u : overlays)
-		{
-			if (u.getId() == id)
-			{
-				return u;
-			}
-		}
-		return null;
+		return overlays.get(id);
 	}
 
 	private void loadTextures(Store store)
@@ -419,21 +404,13 @@ public class MapImageDumper
 			TextureLoader loader = new TextureLoader();
 			TextureDefinition texture = loader.load(file.getFileId(), file.getContents());
 
-			textures.add(texture);
+			textures.put(texture.getId(), texture);
 		}
 	}
 
 	private TextureDefinition findTexture(int id)
 	{
-		for (TextureDefinition t : textures)
-		{
-			if (t.getId() == id)
-			{
-				return t;
-			}
-		}
-
-		return null;
+		return textures.get(id);
 	}
 
 	private void loadSprites(Store store)
@@ -25,7 +25,9 @@
 package net.runelite.cache;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import net.runelite.cache.definitions.TextureDefinition;
 import net.runelite.cache.definitions.loaders.TextureLoader;
 import net.runelite.cache.fs.Archive;
@@ -37,6 +39,7 @@ public class TextureManager
 {
 	private final Store store;
 	private final List<TextureDefinition> textures = new ArrayList<>();
+	private final Map<Integer, TextureDefinition> texturesById = new HashMap<>();
 
 	public TextureManager(Store store)
 	{
@@ -54,6 +57,7 @@ public class TextureManager
 		{
 			TextureDefinition texture = loader.load(file.getFileId(), file.getContents());
 			textures.add(texture);
+			texturesById.put(texture.getId(), texture);
 		}
 	}
 
@@ -64,13 +68,6 @@ public class TextureManager
 
 	public TextureDefinition findTexture(int id)
 	{
-		for (TextureDefinition td : textures)
-		{
-			if (td.getId() == id)
-			{
-				return td;
-			}
-		}
-		return null;
+		return texturesById.get(id);
 	}
 }
@@ -39,10 +39,17 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
 import net.runelite.cache.IndexType;
 import net.runelite.cache.downloader.requests.ConnectionInfo;
 import net.runelite.cache.downloader.requests.FileRequest;
@@ -62,17 +69,22 @@ public class CacheClient implements AutoCloseable
 
 	private static final int CLIENT_REVISION = 139;
 
+	private static final int DEFAULT_WINDOW_SIZE = 20; // max number of archive requests in flight
+
 	private final Store store; // store cache will be written to
 	private final String host;
 	private final int clientRevision;
 
-	private ClientState state;
+	private volatile ClientState state;
 
 	private final EventLoopGroup group = new NioEventLoopGroup(1);
 	private Channel channel;
 
 	private CompletableFuture<Integer> handshakeFuture;
-	private final Queue<PendingFileRequest> requests = new ArrayDeque<>();
+	private final Map<Integer, PendingFileRequest> requests = new HashMap<>();
+
+	private Semaphore window = new Semaphore(DEFAULT_WINDOW_SIZE);
+	private Executor executor = ForkJoinPool.commonPool(); // executor archives are decompressed on
 
 	public CacheClient(Store store)
 	{
@@ -133,10 +145,9 @@ public class CacheClient implements AutoCloseable
 	{
 		assert handshakeFuture != null;
 
-		handshakeFuture.complete(response);
-
 		if (response != HelloHandshake.RESPONSE_OK)
 		{
+			handshakeFuture.complete(response);
 			close();
 			return;
 		}
@@ -152,6 +163,9 @@ public class CacheClient implements AutoCloseable
 		state = ClientState.CONNECTED;
 
 		logger.info("Client is now connected!");
+
+		// complete after the state change so files can be requested immediately
+		handshakeFuture.complete(response);
 	}
 
 	@Override
@@ -171,7 +185,60 @@ public class CacheClient implements AutoCloseable
 		return state;
 	}
 
+	/**
+	 * Set the maximum number of archive requests to have in flight at once
+	 * during a download
+	 *
+	 * @param windowSize
+	 */
+	public void setWindowSize(int windowSize)
+	{
+		this.window = new Semaphore(windowSize);
+	}
+
+	/**
+	 * Set the executor downloaded archives are decompressed on
+	 *
+	 * @param executor
+	 */
+	public void setExecutor(Executor executor)
+	{
+		this.executor = executor;
+	}
+
+	/**
+	 * Download the cache into the store. Archives which are up to date are
+	 * copied from the existing indexes, and the store must be saved
+	 * afterwards.
+	 *
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
 	public void download() throws InterruptedException, ExecutionException, FileNotFoundException, IOException
+	{
+		download(false);
+	}
+
+	/**
+	 * Synchronize the store with the cache. Only archives whose crc or
+	 * revision differ from the store are downloaded, and they are written
+	 * directly to the store's data file without being decompressed. Up to
+	 * date archives keep their existing data. The store must have been
+	 * loaded from disk, and does not need to be saved afterwards.
+	 *
+	 * @throws InterruptedException
+	 * @throws ExecutionException
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
+	public void sync() throws InterruptedException, ExecutionException, FileNotFoundException, IOException
+	{
+		download(true);
+	}
+
+	private void download(boolean sync) throws InterruptedException, ExecutionException, FileNotFoundException, IOException
 	{
 		Stopwatch stopwatch = Stopwatch.createStarted();
 
@@ -223,6 +290,12 @@ public class CacheClient implements AutoCloseable
 				continue;
 			}
 
+			if (sync)
+			{
+				syncIndex(index, i, indexFileResult);
+				continue;
+			}
+
 			Index oldIndex = null;
 			if (index != null)
 			{
@@ -238,6 +311,8 @@ public class CacheClient implements AutoCloseable
 
 			logger.info("Index {} has {} archives", i, index.getArchives().size());
 
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+
 			for (Archive archive : index.getArchives())
 			{
 				Archive oldArchive = oldIndex != null ? oldIndex.getArchive(archive.getArchiveId()) : null;
@@ -261,14 +336,7 @@ public class CacheClient implements AutoCloseable
 							oldArchive.getRevision(), archive.getRevision());
 					}
 
-					FileResult archiveFileResult = requestFile(index.getId(), archive.getArchiveId()).get();
-					byte[] compressedContents = archiveFileResult.getCompressedData();
-
-					archive.setData(compressedContents);
-					if (index.getId() != IndexType.MAPS.getNumber())
-					{
-						archive.decompressAndLoad(null);
-					}
+					futures.add(downloadArchive(index, archive, false));
 				}
 				else
 				{
@@ -288,12 +356,90 @@ public class CacheClient implements AutoCloseable
 					}
 				}
 			}
+
+			// wait for the remaining archives of this index
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).get();
 		}
 
 		stopwatch.stop();
 		logger.info("Download completed in {}", stopwatch);
 	}
 
+	private void syncIndex(Index index, int id, FileResult indexFileResult) throws InterruptedException, ExecutionException, FileNotFoundException, IOException
+	{
+		if (index == null)
+		{
+			index = store.addIndex(id);
+		}
+
+		List<Archive> changed = index.update(indexFileResult.getContents());
+
+		logger.info("Index {} has {} archives, {} out of date", id, index.getArchives().size(), changed.size());
+
+		List<CompletableFuture<Void>> futures = new ArrayList<>(changed.size());
+		for (Archive archive : changed)
+		{
+			logger.debug("Archive {} in index {} is out of date, downloading", archive.getArchiveId(), id);
+
+			futures.add(downloadArchive(index, archive, true));
+		}
+
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).get();
+
+		// the reference table is written last so it never refers to archives which aren't written
+		index.saveIndexData(indexFileResult.getCompressedData());
+	}
+
+	/**
+	 * Request an archive, waiting for room in the request window, and
+	 * process it on the executor once it has been downloaded
+	 *
+	 * @param index
+	 * @param archive
+	 * @param sync whether to write the archive directly to the store
+	 * instead of decompressing it
+	 * @return
+	 * @throws InterruptedException
+	 */
+	private CompletableFuture<Void> downloadArchive(Index index, Archive archive, boolean sync) throws InterruptedException
+	{
+		Semaphore window = this.window;
+		window.acquire();
+
+		CompletableFuture<FileResult> future = requestFile(index.getId(), archive.getArchiveId());
+		future.whenComplete((result, ex) -> window.release());
+
+		return future.thenAcceptAsync(result ->
+		{
+			byte[] compressedContents = result.getCompressedData();
+
+			try
+			{
+				if (sync)
+				{
+					// the stored data is followed by the archive revision
+					int revision = archive.getRevision();
+					byte[] data = Arrays.copyOf(compressedContents, compressedContents.length + 2);
+					data[data.length - 2] = (byte) (revision >> 8);
+					data[data.length - 1] = (byte) revision;
+
+					index.saveArchiveData(archive, data);
+					return;
+				}
+
+				archive.setData(compressedContents);
+				if (index.getId() != IndexType.MAPS.getNumber())
+				{
+					archive.decompressAndLoad(null);
+				}
+			}
+			catch (IOException ex)
+			{
+				throw new CompletionException(ex);
+			}
+		}, executor);
+	}
+
 	public synchronized CompletableFuture<FileResult> requestFile(int index, int fileId)
 	{
 		if (state != ClientState.CONNECTED)
@@ -301,39 +447,39 @@ public class CacheClient implements AutoCloseable
 			throw new IllegalStateException("Can't request files until connected!");
 		}
 
-		ByteBuf buf = Unpooled.buffer(4);
 		FileRequest request = new FileRequest(index, fileId);
 		CompletableFuture<FileResult> future = new CompletableFuture<>();
 		PendingFileRequest pf = new PendingFileRequest(request, future);
+		int hash = pf.computeHash();
 
+		PendingFileRequest existing = requests.get(hash);
+		if (existing != null)
+		{
+			// already requested, the response can only be matched once
+			return existing.getFuture();
+		}
+
+		ByteBuf buf = Unpooled.buffer(4);
 		buf.writeByte(request.getIndex() == 255 ? 1 : 0);
-		int hash = pf.computeHash();
 		buf.writeMedium(hash);
 
 		logger.trace("Sending request for {}/{}", index, fileId);
 
-		channel.writeAndFlush(buf);
+		requests.put(hash, pf);
 
-		requests.add(pf);
+		channel.writeAndFlush(buf);
 
 		return future;
 	}
 
-	private PendingFileRequest findRequest(int index, int file)
+	protected void onFileFinish(int index, int file, byte[] compressedData)
 	{
-		for (PendingFileRequest pr : requests)
+		PendingFileRequest pr;
+
+		synchronized (this)
 		{
-			if (pr.getRequest().getIndex() == index && pr.getRequest().getFile() == file)
-			{
-				return pr;
-			}
+			pr = requests.remove((index << 16) | file);
 		}
-		return null;
-	}
-
-	protected synchronized void onFileFinish(int index, int file, byte[] compressedData)
-	{
-		PendingFileRequest pr = findRequest(index, file);
 
 		if (pr == null)
 		{
@@ -341,8 +487,6 @@ public class CacheClient implements AutoCloseable
 			return;
 		}
 
-		requests.remove(pr);
-
 		FileResult result = new FileResult(index, file, compressedData);
 
 		logger.debug("File download finished for index {} file {}, length {}", index, file, compressedData.length);
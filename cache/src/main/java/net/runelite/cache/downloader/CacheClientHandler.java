@@ -72,77 +72,90 @@ public class CacheClientHandler extends ChannelInboundHandlerAdapter
 		}
 		else if (state == ClientState.CONNECTED)
 		{
-			if (buffer.readableBytes() < 8)
+			// with requests pipelined, a read may contain several files
+			while (readFile())
 			{
-				logger.trace("Connected, but not enough data yet to read header");
-				return;
 			}
+		}
 
-			ByteBuf copy = buffer.slice();
+		buffer.discardReadBytes();
+		ReferenceCountUtil.release(msg);
+	}
 
-			int index = copy.readUnsignedByte();
-			int file = copy.readUnsignedShort();
-			// decompress() starts reading here
-			int compression = copy.readUnsignedByte();
-			int compressedFileSize = copy.readInt();
+	/**
+	 * Read a file from the buffer, if it has been completely received
+	 *
+	 * @return whether or not a file was read
+	 */
+	private boolean readFile()
+	{
+		if (buffer.readableBytes() < 8)
+		{
+			logger.trace("Connected, but not enough data yet to read header");
+			return false;
+		}
 
-			int size = compressedFileSize
-				+ 5 // 1 byte compresion type, 4 byte compressed size
-				+ (compression != 0 ? 4 : 0); // compression has leading 4 byte decompressed length
+		ByteBuf copy = buffer.slice();
 
-			int breaks = calculateBreaks(size);
+		int index = copy.readUnsignedByte();
+		int file = copy.readUnsignedShort();
+		// decompress() starts reading here
+		int compression = copy.readUnsignedByte();
+		int compressedFileSize = copy.readInt();
 
-			// 3 for index/file
-			if (size + 3 + breaks > buffer.readableBytes())
-			{
-				logger.trace("Index {} archive {}: Not enough data yet {} > {}", index, file, size + 3 + breaks, buffer.readableBytes());
-				return;
-			}
+		int size = compressedFileSize
+			+ 5 // 1 byte compresion type, 4 byte compressed size
+			+ (compression != 0 ? 4 : 0); // compression has leading 4 byte decompressed length
 
-			byte[] compressedData = new byte[size];
-			int compressedDataOffset = 0;
+		int breaks = calculateBreaks(size);
 
-			int totalRead = 3;
-			buffer.skipBytes(3); // skip index/file
+		// 3 for index/file
+		if (size + 3 + breaks > buffer.readableBytes())
+		{
+			logger.trace("Index {} archive {}: Not enough data yet {} > {}", index, file, size + 3 + breaks, buffer.readableBytes());
+			return false;
+		}
 
-			for (int i = 0; i < breaks + 1; ++i)
-			{
-				int bytesInBlock = 512 - (totalRead % 512);
-				int bytesToRead = Math.min(bytesInBlock, size - compressedDataOffset);
-
-				logger.trace("{}/{}: reading block {}/{}, read so far this block: {}, file status: {}/{}",
-					index, file,
-					(totalRead % 512), 512,
-					bytesInBlock,
-					compressedDataOffset, size);
-
-				buffer.getBytes(buffer.readerIndex(), compressedData, compressedDataOffset, bytesToRead);
-				buffer.skipBytes(bytesToRead);
-
-				compressedDataOffset += bytesToRead;
-				totalRead += bytesToRead;
-
-				if (i < breaks)
-				{
-					assert compressedDataOffset < size;
-					int b = buffer.readUnsignedByte();
-					++totalRead;
-					assert b == 0xff;
-				}
-			}
+		byte[] compressedData = new byte[size];
+		int compressedDataOffset = 0;
+
+		int totalRead = 3;
+		buffer.skipBytes(3); // skip index/file
 
-			assert compressedDataOffset == size;
+		for (int i = 0; i < breaks + 1; ++i)
+		{
+			int bytesInBlock = 512 - (totalRead % 512);
+			int bytesToRead = Math.min(bytesInBlock, size - compressedDataOffset);
 
-			logger.trace("{}/{}: done downloading file, remaining buffer {}",
+			logger.trace("{}/{}: reading block {}/{}, read so far this block: {}, file status: {}/{}",
 				index, file,
-				buffer.readableBytes());
-			buffer.clear();
+				(totalRead % 512), 512,
+				bytesInBlock,
+				compressedDataOffset, size);
+
+			buffer.getBytes(buffer.readerIndex(), compressedData, compressedDataOffset, bytesToRead);
+			buffer.skipBytes(bytesToRead);
+
+			compressedDataOffset += bytesToRead;
+			totalRead += bytesToRead;
 
-			client.onFileFinish(index, file, compressedData);
+			if (i < breaks)
+			{
+				assert compressedDataOffset < size;
+				int b = buffer.readUnsignedByte();
+				++totalRead;
+				assert b == 0xff;
+			}
 		}
 
-		buffer.discardReadBytes();
-		ReferenceCountUtil.release(msg);
+		assert compressedDataOffset == size;
+
+		logger.trace("{}/{}: done downloading file, remaining buffer {}",
+			index, file,
+			buffer.readableBytes());
+
+		client.onFileFinish(index, file, compressedData);
+		return true;
 	}
 
 	/** Calculate how many breaks there are in the file stream.
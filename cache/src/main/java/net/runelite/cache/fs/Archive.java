@@ -24,9 +24,12 @@
  */
 package net.runelite.cache.fs;
 
-import com.google.common.io.Files;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -34,6 +37,7 @@ import java.util.List;
 import java.util.Objects;
 import net.runelite.cache.io.InputStream;
 import net.runelite.cache.io.OutputStream;
+import net.runelite.cache.util.Hasher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +49,12 @@ public class Archive
 
 	private byte[] data; // raw data from the datafile, compressed/encrypted
 
+	private IndexEntry entry; // location of the data in the datafile, when lazily loaded
+	private volatile boolean loaded = true; // whether or not the contents of the files are loaded
+	private volatile boolean dirty = true; // whether or not this archive has changed since it was loaded or saved
+	private volatile byte[] compressed; // data as it is written to the datafile, kept until changed or saved
+	private volatile int modCount; // number of times this archive has been changed or saved
+
 	private int archiveId;
 	private int nameHash;
 	private byte[] whirlpool;
@@ -104,18 +114,300 @@ public class Archive
 
 	public byte[] getData()
 	{
-		return data;
+		try
+		{
+			return readData();
+		}
+		catch (IOException ex)
+		{
+			throw new UncheckedIOException(ex);
+		}
 	}
 
 	public void setData(byte[] data)
 	{
 		this.data = data;
+		changed();
+	}
+
+	private byte[] readData() throws IOException
+	{
+		IndexEntry entry = this.entry;
+		if (data != null || entry == null || loaded)
+		{
+			return data;
+		}
+
+		// archive is lazily loaded, read the data from the store
+		return index.getStore().getData().read(index.getId(), archiveId, entry.getSector(), entry.getLength());
+	}
+
+	/**
+	 * Set the location of this archive's data in the datafile. The archive
+	 * is unloaded, and its data is read when it is first needed.
+	 *
+	 * @param entry
+	 */
+	synchronized void setEntry(IndexEntry entry)
+	{
+		this.entry = entry;
+		this.data = null;
+		this.loaded = false;
+		this.dirty = false;
+	}
+
+	/**
+	 * Detach this archive from the datafile, reading its data into
+	 * memory if it is not yet loaded. An unloaded archive stays unloaded,
+	 * and its files are decoded from that data when they are needed.
+	 *
+	 * @throws IOException
+	 */
+	synchronized void detach() throws IOException
+	{
+		if (entry == null)
+		{
+			return;
+		}
+
+		data = readData();
+		entry = null;
+	}
+
+	public boolean isLoaded()
+	{
+		return loaded;
+	}
+
+	public boolean isDirty()
+	{
+		return dirty;
+	}
+
+	void setDirty(boolean dirty)
+	{
+		if (dirty)
+		{
+			changed();
+		}
+		else
+		{
+			this.dirty = false;
+		}
+	}
+
+	/**
+	 * Get the number of times this archive has been changed or saved, so
+	 * that anything built from its data can tell when it is out of date
+	 *
+	 * @return
+	 */
+	public int getModCount()
+	{
+		return modCount;
+	}
+
+	private void changed()
+	{
+		dirty = true;
+		compressed = null;
+		++modCount;
+	}
+
+	/**
+	 * Called once this archive has been written to the datafile
+	 *
+	 * @param entry the new location of the archive's data
+	 */
+	void saved(IndexEntry entry)
+	{
+		boolean track;
+
+		synchronized (this)
+		{
+			if (this.entry != null)
+			{
+				// lazily loaded archives must be reloaded from their new location
+				this.entry = entry;
+			}
+
+			dirty = false;
+			compressed = null;
+			++modCount;
+			track = this.entry != null && loaded;
+		}
+
+		if (track)
+		{
+			// dirty archives are dropped by the cache when it tries to
+			// unload them, so track it again now that it can be unloaded
+			index.getStore().getArchiveCache().loaded(this);
+		}
+	}
+
+	/**
+	 * Compress this archive as it is written to the datafile, and update its
+	 * crc and whirlpool. The result is kept until the archive is changed or
+	 * saved, so compressing it again is free.
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	byte[] compress() throws IOException
+	{
+		byte[] compressed = this.compressed;
+		if (compressed != null)
+		{
+			return compressed;
+		}
+
+		if (dirty)
+		{
+			// the raw data of an unloaded archive doesn't include its changes
+			load();
+		}
+		else if ((entry != null && !loaded) || data != null)
+		{
+			// unchanged data as read from the datafile, so it and the crc
+			// and whirlpool from the reference table are still current
+			compressed = getData();
+			this.compressed = compressed;
+			return compressed;
+		}
+
+		int rev; // used for determining what part of compressedData to hash
+		byte[] data = getData();
+
+		if (data != null)
+		{
+			compressed = data; // data was never decompressed or loaded
+			rev = -1; // assume that this data has no revision?
+		}
+		else
+		{
+			compressed = DataFile.compress(saveContents(), compression, revision, null);
+			rev = revision;
+		}
+
+		int length = rev != -1 ? compressed.length - 2 : compressed.length;
+		Hasher hasher = Hasher.hash(compressed, 0, length);
+		crc = hasher.getCrc();
+		whirlpool = hasher.getWhirlpool();
+
+		this.compressed = compressed;
+		return compressed;
+	}
+
+	/**
+	 * Get the contents of a file of this archive, loading the archive
+	 * first if it is lazily loaded
+	 *
+	 * @param file
+	 * @return
+	 */
+	byte[] loadFile(File file)
+	{
+		byte[] contents;
+
+		synchronized (this)
+		{
+			if (loaded || index.getXteaManager() != null)
+			{
+				// files of encrypted archives are loaded with decompressAndLoad
+				return file.getLoadedContents();
+			}
+
+			try
+			{
+				decompress(null);
+			}
+			catch (IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+
+			contents = file.getLoadedContents();
+		}
+
+		// this must not be done while holding the lock, as it may unload other archives
+		index.getStore().getArchiveCache().loaded(this);
+		return contents;
+	}
+
+	/**
+	 * Load the contents of this archive if it is lazily loaded and not
+	 * yet loaded, so that changes are made to its contents. Archives of
+	 * encrypted indexes are not loaded, as they need their keys.
+	 */
+	void load()
+	{
+		synchronized (this)
+		{
+			if (loaded || (entry == null && data == null) || index.getXteaManager() != null)
+			{
+				return;
+			}
+
+			try
+			{
+				decompress(null);
+			}
+			catch (IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+		}
+
+		index.getStore().getArchiveCache().loaded(this);
+	}
+
+	/**
+	 * Unload the file contents of this archive, if it was lazily loaded and
+	 * has not been modified
+	 *
+	 * @return whether or not the archive was unloaded
+	 */
+	synchronized boolean unload()
+	{
+		if (entry == null || !loaded || dirty)
+		{
+			return false;
+		}
+
+		for (File file : files)
+		{
+			file.unload();
+		}
+
+		loaded = false;
+		return true;
+	}
+
+	/**
+	 * Get the size of the loaded contents of this archive
+	 *
+	 * @return
+	 */
+	synchronized int getContentsSize()
+	{
+		int size = 0;
+		for (File file : files)
+		{
+			byte[] contents = file.getLoadedContents();
+			if (contents != null)
+			{
+				size += contents.length;
+			}
+		}
+		return size;
 	}
 
 	public File addFile(int id)
 	{
+		load();
 		File file = new File(this, id);
 		this.files.add(file);
+		changed();
 		return file;
 	}
 
@@ -134,7 +426,24 @@ public class Archive
 
 	public void decompressAndLoad(int[] keys) throws IOException
 	{
-		byte[] encryptedData = this.getData();
+		synchronized (this)
+		{
+			// lazily loaded archives which are already loaded have no data to decompress
+			if (entry == null || !loaded)
+			{
+				decompress(keys);
+			}
+		}
+
+		if (entry != null)
+		{
+			index.getStore().getArchiveCache().loaded(this);
+		}
+	}
+
+	private void decompress(int[] keys) throws IOException
+	{
+		byte[] encryptedData = this.readData();
 
 		DataFileReadResult res = DataFile.decompress(encryptedData, keys);
 		if (res == null)
@@ -161,10 +470,11 @@ public class Archive
 			logger.warn("revision mismatch for archive {}", this.getArchiveId());
 		}
 
-		setCompression(res.compression);
+		this.compression = res.compression;
 
 		loadContents(decompressedData);
-		this.setData(null); // now that we've loaded it, clean it so it doesn't get written back
+		this.data = null; // now that we've loaded it, clean it so it doesn't get written back
+		this.loaded = true;
 	}
 
 	public void loadContents(byte[] data)
@@ -173,7 +483,7 @@ public class Archive
 
 		if (this.getFiles().size() == 1)
 		{
-			this.getFiles().get(0).setContents(data);
+			this.getFiles().get(0).loadContents(data);
 			return;
 		}
 
@@ -229,7 +539,7 @@ public class Archive
 		for (int i = 0; i < filesCount; ++i)
 		{
 			File f = this.getFiles().get(i);
-			f.setContents(fileContents[i]);
+			f.loadContents(fileContents[i]);
 		}
 	}
 
@@ -274,6 +584,18 @@ public class Archive
 	}
 
 	public void saveTree(java.io.File to) throws IOException
+	{
+		saveTree(to.toPath());
+	}
+
+	/**
+	 * Write this archive to a cache tree. The directory may be on any
+	 * filesystem, such as a zip filesystem.
+	 *
+	 * @param to directory of the archive's index in the tree
+	 * @throws IOException
+	 */
+	public void saveTree(Path to) throws IOException
 	{
 		if (data != null)
 		{
@@ -281,14 +603,11 @@ public class Archive
 
 			File file = files.get(0);
 
-			java.io.File archiveFile = new java.io.File(to, this.getArchiveId() + "-" + file.getFileId() + "-" + file.getNameHash() + ".datc");
-			Files.write(data, archiveFile);
-
-			archiveFile = new java.io.File(to, this.getArchiveId() + ".rev");
-			Files.write("" + this.getRevision(), archiveFile, Charset.defaultCharset());
+			Path archiveFile = to.resolve(this.getArchiveId() + "-" + file.getFileId() + "-" + file.getNameHash() + ".datc");
+			Files.write(archiveFile, data);
 
-			archiveFile = new java.io.File(to, this.getArchiveId() + ".name");
-			Files.write("" + this.getNameHash(), archiveFile, Charset.defaultCharset());
+			writeTreeInt(to.resolve(this.getArchiveId() + ".rev"), this.getRevision());
+			writeTreeInt(to.resolve(this.getArchiveId() + ".name"), this.getNameHash());
 			return;
 		}
 
@@ -296,66 +615,65 @@ public class Archive
 		{
 			File file = this.getFiles().get(0);
 
-			java.io.File archiveFile = new java.io.File(to, this.getArchiveId() + "-" + file.getFileId() + "-" + file.getNameHash() + ".dat");
+			Path archiveFile = to.resolve(this.getArchiveId() + "-" + file.getFileId() + "-" + file.getNameHash() + ".dat");
 			byte[] contents = file.getContents();
 
-			Files.write(contents, archiveFile);
+			Files.write(archiveFile, contents);
 
-			archiveFile = new java.io.File(to, this.getArchiveId() + ".rev");
-			Files.write("" + this.getRevision(), archiveFile, Charset.defaultCharset());
-
-			archiveFile = new java.io.File(to, this.getArchiveId() + ".name");
-			Files.write("" + this.getNameHash(), archiveFile, Charset.defaultCharset());
+			writeTreeInt(to.resolve(this.getArchiveId() + ".rev"), this.getRevision());
+			writeTreeInt(to.resolve(this.getArchiveId() + ".name"), this.getNameHash());
 			return;
 		}
 
-		java.io.File archiveFile = new java.io.File(to, this.getArchiveId() + ".rev");
-		Files.write("" + this.getRevision(), archiveFile, Charset.defaultCharset());
-
-		archiveFile = new java.io.File(to, this.getArchiveId() + ".name");
-		Files.write("" + this.getNameHash(), archiveFile, Charset.defaultCharset());
+		writeTreeInt(to.resolve(this.getArchiveId() + ".rev"), this.getRevision());
+		writeTreeInt(to.resolve(this.getArchiveId() + ".name"), this.getNameHash());
 
-		java.io.File archiveFolder = new java.io.File(to, "" + this.getArchiveId());
-		archiveFolder.mkdirs();
+		Path archiveFolder = to.resolve("" + this.getArchiveId());
+		Files.createDirectories(archiveFolder);
 
 		for (File file : files)
 		{
-			archiveFile = new java.io.File(archiveFolder, file.getFileId() + "-" + file.getNameHash() + ".dat");
+			Path archiveFile = archiveFolder.resolve(file.getFileId() + "-" + file.getNameHash() + ".dat");
 			byte[] contents = file.getContents();
-			Files.write(contents, archiveFile);
+			Files.write(archiveFile, contents);
 		}
 	}
 
 	public void loadTreeData(java.io.File parent, java.io.File from) throws IOException
+	{
+		loadTreeData(parent.toPath(), from.toPath());
+	}
+
+	public void loadTreeData(Path parent, Path from) throws IOException
 	{
 		//archiveId-fileId-fileName - assumes name isn't negative
-		String[] parts = Files.getNameWithoutExtension(from.getName()).split("-");
+		String[] parts = getNameWithoutExtension(from).split("-");
 		int archiveId = Integer.parseInt(parts[0]);
 		int fileId = Integer.parseInt(parts[1]);
 		int nameHash = Integer.parseInt(parts[2]);
 
 		assert archiveId == this.getArchiveId();
 
-		data = Files.toByteArray(from);
+		data = Files.readAllBytes(from);
 
 		File file = new File(this, fileId);
 		file.setNameHash(nameHash);
 
 		files.add(file);
 
-		java.io.File archiveFile = new java.io.File(parent, this.getArchiveId() + ".rev");
-		int rev = Integer.parseInt(Files.readFirstLine(archiveFile, Charset.defaultCharset()));
-		this.setRevision(rev);
-
-		archiveFile = new java.io.File(parent, this.getArchiveId() + ".name");
-		int name = Integer.parseInt(Files.readFirstLine(archiveFile, Charset.defaultCharset()));
-		this.setNameHash(name);
+		this.setRevision(readTreeInt(parent.resolve(this.getArchiveId() + ".rev")));
+		this.setNameHash(readTreeInt(parent.resolve(this.getArchiveId() + ".name")));
 	}
 
 	public void loadTreeSingleFile(java.io.File parent, java.io.File from) throws IOException
+	{
+		loadTreeSingleFile(parent.toPath(), from.toPath());
+	}
+
+	public void loadTreeSingleFile(Path parent, Path from) throws IOException
 	{
 		//archiveId-fileId-fileName
-		String[] parts = Files.getNameWithoutExtension(from.getName()).split("-");
+		String[] parts = getNameWithoutExtension(from).split("-");
 		int archiveId = Integer.parseInt(parts[0]);
 		int fileId = Integer.parseInt(parts[1]);
 		int nameHash = Integer.parseInt(parts[2]);
@@ -365,50 +683,63 @@ public class Archive
 		File file = new File(this, fileId);
 		file.setNameHash(nameHash);
 
-		byte[] contents = Files.toByteArray(from);
+		byte[] contents = Files.readAllBytes(from);
 		file.setContents(contents);
 
 		files.add(file);
 
-		java.io.File archiveFile = new java.io.File(parent, this.getArchiveId() + ".rev");
-		int rev = Integer.parseInt(Files.readFirstLine(archiveFile, Charset.defaultCharset()));
-		this.setRevision(rev);
-
-		archiveFile = new java.io.File(parent, this.getArchiveId() + ".name");
-		int name = Integer.parseInt(Files.readFirstLine(archiveFile, Charset.defaultCharset()));
-		this.setNameHash(name);
+		this.setRevision(readTreeInt(parent.resolve(this.getArchiveId() + ".rev")));
+		this.setNameHash(readTreeInt(parent.resolve(this.getArchiveId() + ".name")));
 	}
 
 	public void loadTree(java.io.File parent, java.io.File from) throws IOException
 	{
-		for (java.io.File file : from.listFiles())
+		loadTree(parent.toPath(), from.toPath());
+	}
+
+	public void loadTree(Path parent, Path from) throws IOException
+	{
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(from))
 		{
-			//fileId-fileName.dat
-			String[] split = Files.getNameWithoutExtension(file.getName()).split("-");
-			int fileId = Integer.parseInt(split[0]);
-			int fileName = Integer.parseInt(split[1]);
+			for (Path file : stream)
+			{
+				//fileId-fileName.dat
+				String[] split = getNameWithoutExtension(file).split("-");
+				int fileId = Integer.parseInt(split[0]);
+				int fileName = Integer.parseInt(split[1]);
 
-			File f = new File(this, fileId);
-			f.setNameHash(fileName);
+				File f = new File(this, fileId);
+				f.setNameHash(fileName);
 
-			byte[] contents = Files.toByteArray(file);
-			f.setContents(contents);
+				byte[] contents = Files.readAllBytes(file);
+				f.setContents(contents);
 
-			files.add(f);
+				files.add(f);
+			}
 		}
 
-		java.io.File archiveFile = new java.io.File(parent, this.getArchiveId() + ".rev");
-		int rev = Integer.parseInt(Files.readFirstLine(archiveFile, Charset.defaultCharset()));
-		this.setRevision(rev);
-
-		archiveFile = new java.io.File(parent, this.getArchiveId() + ".name");
-		int name = Integer.parseInt(Files.readFirstLine(archiveFile, Charset.defaultCharset()));
-		this.setNameHash(name);
+		this.setRevision(readTreeInt(parent.resolve(this.getArchiveId() + ".rev")));
+		this.setNameHash(readTreeInt(parent.resolve(this.getArchiveId() + ".name")));
 
 		// the filesystem may order these differently (eg, 1, 10, 2)
 		Collections.sort(files, (f1, f2) -> Integer.compare(f1.getFileId(), f2.getFileId()));
 	}
 
+	static String getNameWithoutExtension(Path path)
+	{
+		return com.google.common.io.Files.getNameWithoutExtension(path.getFileName().toString());
+	}
+
+	static int readTreeInt(Path path) throws IOException
+	{
+		return Integer.parseInt(Files.readAllLines(path, Charset.defaultCharset()).get(0));
+	}
+
+	static void writeTreeInt(Path path, int value) throws IOException
+	{
+		Files.write(path, ("" + value).getBytes(Charset.defaultCharset()));
+	}
+
 	public void loadNames(InputStream stream, int numberOfFiles)
 	{
 		for (int i = 0; i < numberOfFiles; ++i)
@@ -432,6 +763,7 @@ public class Archive
 	public void setNameHash(int nameHash)
 	{
 		this.nameHash = nameHash;
+		index.archiveRenamed();
 	}
 
 	public byte[] getWhirlpool()
@@ -461,7 +793,9 @@ public class Archive
 
 	public void setRevision(int revision)
 	{
+		load();
 		this.revision = revision;
+		changed();
 	}
 
 	public int getCompression()
@@ -471,7 +805,9 @@ public class Archive
 
 	public void setCompression(int compression)
 	{
+		load();
 		this.compression = compression;
+		changed();
 	}
 
 	public List<File> getFiles()
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.fs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the lazily loaded archives of a store, unloading them when the
+ * size of their contents exceeds the maximum size
+ */
+class ArchiveCache
+{
+	// archives in the order they were loaded, and their size when they were
+	private final Deque<Archive> archives = new ArrayDeque<>();
+	private final Map<Archive, Integer> sizes = new IdentityHashMap<>();
+	private long maximumSize = Long.MAX_VALUE;
+	private long size;
+
+	void setMaximumSize(long maximumSize)
+	{
+		List<Archive> evicted;
+
+		synchronized (this)
+		{
+			this.maximumSize = maximumSize;
+			evicted = evict();
+		}
+
+		unload(evicted);
+	}
+
+	void loaded(Archive archive)
+	{
+		int archiveSize = archive.getContentsSize();
+		List<Archive> evicted;
+
+		synchronized (this)
+		{
+			Integer previousSize = sizes.put(archive, archiveSize);
+			if (previousSize != null)
+			{
+				// already tracked, move it to the back with its new size
+				remove(archive);
+				size -= previousSize;
+			}
+
+			archives.addLast(archive);
+			size += archiveSize;
+
+			evicted = evict();
+		}
+
+		// archives are unloaded without holding the lock, as unloading an
+		// archive requires the archive's lock
+		unload(evicted);
+	}
+
+	synchronized int getCount()
+	{
+		return archives.size();
+	}
+
+	synchronized long getSize()
+	{
+		return size;
+	}
+
+	private void remove(Archive archive)
+	{
+		// archives are compared by identity, as equal archives may be distinct
+		for (Iterator<Archive> it = archives.iterator(); it.hasNext();)
+		{
+			if (it.next() == archive)
+			{
+				it.remove();
+				return;
+			}
+		}
+	}
+
+	private List<Archive> evict()
+	{
+		List<Archive> evicted = new ArrayList<>();
+
+		// always keep the most recently loaded archive
+		while (size > maximumSize && archives.size() > 1)
+		{
+			Archive archive = archives.removeFirst();
+			size -= sizes.remove(archive);
+			evicted.add(archive);
+		}
+
+		return evicted;
+	}
+
+	private static void unload(List<Archive> archives)
+	{
+		for (Archive archive : archives)
+		{
+			// archives which can't be unloaded because they are dirty are
+			// tracked again once they are saved
+			archive.unload();
+		}
+	}
+}
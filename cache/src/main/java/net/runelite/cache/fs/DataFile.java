@@ -31,17 +31,16 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import javax.crypto.BadPaddingException;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import net.runelite.cache.util.BZip2;
 import net.runelite.cache.io.InputStream;
 import net.runelite.cache.io.OutputStream;
-import net.runelite.cache.util.Crc32;
 import net.runelite.cache.util.GZip;
-import net.runelite.cache.util.Whirlpool;
+import net.runelite.cache.util.Hasher;
 import net.runelite.cache.util.Xtea;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,24 +54,153 @@ public class DataFile implements Closeable
 	private final Store store;
 	private final File file;
 	private final RandomAccessFile dat;
+	private final FileChannel channel;
 	private final byte[] readCachedBuffer = new byte[SECTOR_SIZE];
+	private volatile MappedByteBuffer mapped;
+	/**
+	 * held for reading by reads, and for writing when the file is truncated
+	 */
+	private final ReadWriteLock truncateLock = new ReentrantReadWriteLock();
 	
 	public DataFile(Store store, File file) throws FileNotFoundException
 	{
 		this.file = file;
 		this.store = store;
 		dat = new RandomAccessFile(file, "rw");
+		channel = dat.getChannel();
 	}
 	
 	@Override
 	public void close() throws IOException
 	{
+		mapped = null;
 		dat.close();
 	}
 	
 	public void clear() throws IOException
 	{
-		dat.setLength(0L);
+		// readers may still be using the old mapping, which must not
+		// outlive the data it maps
+		truncateLock.writeLock().lock();
+		try
+		{
+			synchronized (this)
+			{
+				boolean wasMapped = mapped != null;
+				mapped = null;
+
+				dat.setLength(0L);
+
+				if (wasMapped)
+				{
+					remap();
+				}
+			}
+		}
+		finally
+		{
+			truncateLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Enable or disable memory mapped reads. When mapped, reads are served
+	 * from a read only mapping of the data file, which is remapped when
+	 * the file grows.
+	 *
+	 * @param mapped whether or not to map the data file
+	 * @throws IOException
+	 */
+	public synchronized void setMapped(boolean mapped) throws IOException
+	{
+		if (!mapped)
+		{
+			this.mapped = null;
+			return;
+		}
+
+		remap();
+	}
+
+	public boolean isMapped()
+	{
+		return mapped != null;
+	}
+
+	private synchronized MappedByteBuffer remap() throws IOException
+	{
+		long length = channel.size();
+		if (length > Integer.MAX_VALUE)
+		{
+			throw new IOException("data file is too large to map: " + length);
+		}
+
+		MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0L, length);
+		this.mapped = map;
+		return map;
+	}
+
+	/**
+	 * Get the mapping of the data file, remapping it if it does not yet
+	 * cover the given length
+	 *
+	 * @param length
+	 * @return
+	 * @throws IOException
+	 */
+	private ByteBuffer getMapping(long length) throws IOException
+	{
+		MappedByteBuffer map = this.mapped;
+		if (map != null && map.limit() < length)
+		{
+			synchronized (this)
+			{
+				map = this.mapped;
+				if (map != null && map.limit() < length && channel.size() > map.limit())
+				{
+					map = remap();
+				}
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Read a sector from the data file. This does not use the file pointer
+	 * of dat, so it may be called concurrently with other reads.
+	 *
+	 * @param map mapping of the data file, or null if not mapped
+	 * @param position
+	 * @param buffer
+	 * @param length
+	 * @return number of bytes read
+	 * @throws IOException
+	 */
+	private int readSector(ByteBuffer map, long position, byte[] buffer, int length) throws IOException
+	{
+		if (map != null)
+		{
+			if (position >= map.limit())
+			{
+				return 0;
+			}
+
+			ByteBuffer view = map.duplicate();
+			view.position((int) position);
+			int len = Math.min(length, view.remaining());
+			view.get(buffer, 0, len);
+			return len;
+		}
+
+		ByteBuffer view = ByteBuffer.wrap(buffer, 0, length);
+		while (view.hasRemaining())
+		{
+			if (channel.read(view, position + view.position()) == -1)
+			{
+				break;
+			}
+		}
+		return view.position();
 	}
 
 	/**
@@ -84,14 +212,31 @@ public class DataFile implements Closeable
 	 * @return
 	 * @throws IOException 
 	 */
-	public synchronized byte[] read(int indexId, int archiveId, int sector, int size) throws IOException
+	public byte[] read(int indexId, int archiveId, int sector, int size) throws IOException
 	{
-		if (sector <= 0L || dat.length() / SECTOR_SIZE < (long) sector)
+		truncateLock.readLock().lock();
+		try
+		{
+			return readSectors(indexId, archiveId, sector, size);
+		}
+		finally
 		{
-			logger.warn("bad read, dat length {}, requested sector {}", dat.length(), sector);
+			truncateLock.readLock().unlock();
+		}
+	}
+
+	private byte[] readSectors(int indexId, int archiveId, int sector, int size) throws IOException
+	{
+		ByteBuffer map = getMapping((long) SECTOR_SIZE * sector + SECTOR_SIZE);
+		long length = map != null ? map.limit() : channel.size();
+
+		if (sector <= 0L || length / SECTOR_SIZE < (long) sector)
+		{
+			logger.warn("bad read, dat length {}, requested sector {}", length, sector);
 			return null;
 		}
 		
+		byte[] readBuffer = new byte[SECTOR_SIZE];
 		ByteBuffer buffer = ByteBuffer.allocate(size);
 		
 		for (int part = 0, readBytesCount = 0, nextSector;
@@ -104,7 +249,12 @@ public class DataFile implements Closeable
 				return null;
 			}
 
-			dat.seek(SECTOR_SIZE * sector);
+			long position = (long) SECTOR_SIZE * sector;
+			if (map != null && position + SECTOR_SIZE > map.limit())
+			{
+				map = getMapping(position + SECTOR_SIZE);
+				length = map != null ? map.limit() : channel.size();
+			}
 			
 			int dataBlockSize = size - readBytesCount;
 			byte headerSize;
@@ -119,17 +269,17 @@ public class DataFile implements Closeable
 					dataBlockSize = SECTOR_SIZE - headerSize;
 				}
 
-				int i = dat.read(this.readCachedBuffer, 0, headerSize + dataBlockSize);
+				int i = readSector(map, position, readBuffer, headerSize + dataBlockSize);
 				if (i != headerSize + dataBlockSize)
 				{
 					logger.warn("Short read when reading file data for {}/{}", indexId, archiveId);
 					return null;
 				}
 				
-				currentArchive = ((this.readCachedBuffer[1] & 255) << 16) + ((this.readCachedBuffer[0] & 255) << 24) + (('\uff00' & this.readCachedBuffer[2] << 8) - -(this.readCachedBuffer[3] & 255));
-				currentPart = ((this.readCachedBuffer[4] & 255) << 8) + (255 & this.readCachedBuffer[5]);
-				nextSector = (this.readCachedBuffer[8] & 255) + ('\uff00' & this.readCachedBuffer[7] << 8) + ((255 & this.readCachedBuffer[6]) << 16);
-				currentIndex = this.readCachedBuffer[9] & 255;
+				currentArchive = ((readBuffer[1] & 255) << 16) + ((readBuffer[0] & 255) << 24) + (('\uff00' & readBuffer[2] << 8) - -(readBuffer[3] & 255));
+				currentPart = ((readBuffer[4] & 255) << 8) + (255 & readBuffer[5]);
+				nextSector = (readBuffer[8] & 255) + ('\uff00' & readBuffer[7] << 8) + ((255 & readBuffer[6]) << 16);
+				currentIndex = readBuffer[9] & 255;
 			}
 			else
 			{
@@ -139,17 +289,17 @@ public class DataFile implements Closeable
 					dataBlockSize = SECTOR_SIZE - headerSize;
 				}
 
-				int i = dat.read(this.readCachedBuffer, 0, headerSize + dataBlockSize);
+				int i = readSector(map, position, readBuffer, headerSize + dataBlockSize);
 				if (i != headerSize + dataBlockSize)
 				{
 					logger.warn("short read");
 					return null;
 				}
 				
-				currentArchive = (255 & this.readCachedBuffer[1]) + ('\uff00' & this.readCachedBuffer[0] << 8);
-				currentPart = ((this.readCachedBuffer[2] & 255) << 8) + (255 & this.readCachedBuffer[3]);
-				nextSector = (this.readCachedBuffer[6] & 255) + ('\uff00' & this.readCachedBuffer[5] << 8) + ((255 & this.readCachedBuffer[4]) << 16);
-				currentIndex = this.readCachedBuffer[7] & 255;
+				currentArchive = (255 & readBuffer[1]) + ('\uff00' & readBuffer[0] << 8);
+				currentPart = ((readBuffer[2] & 255) << 8) + (255 & readBuffer[3]);
+				nextSector = (readBuffer[6] & 255) + ('\uff00' & readBuffer[5] << 8) + ((255 & readBuffer[4]) << 16);
+				currentIndex = readBuffer[7] & 255;
 			}
 
 			if (archiveId != currentArchive || currentPart != part || indexId != currentIndex)
@@ -161,13 +311,13 @@ public class DataFile implements Closeable
 				return null;
 			}
 
-			if (nextSector < 0 || dat.length() / SECTOR_SIZE < (long) nextSector)
+			if (nextSector < 0 || length / SECTOR_SIZE < (long) nextSector)
 			{
 				logger.warn("Invalid next sector");
 				return null;
 			}
 
-			buffer.put(readCachedBuffer, headerSize, dataBlockSize);
+			buffer.put(readBuffer, headerSize, dataBlockSize);
 			readBytesCount += dataBlockSize;
 
 			++part;
@@ -177,7 +327,27 @@ public class DataFile implements Closeable
 		return buffer.array();
 	}
 	
-	public synchronized DataFileWriteResult write(int indexId, int archiveId, byte[] compressedData, int revision) throws IOException
+	public DataFileWriteResult write(int indexId, int archiveId, byte[] compressedData, int revision) throws IOException
+	{
+		DataFileWriteResult res = writeSectors(indexId, archiveId, compressedData);
+
+		int length = revision != -1 ? compressedData.length - 2 : compressedData.length;
+		Hasher hasher = Hasher.hash(compressedData, 0, length);
+		res.crc = hasher.getCrc();
+		res.whirlpool = hasher.getWhirlpool();
+		return res;
+	}
+
+	/**
+	 * Write data to the datafile, without computing its crc or whirlpool
+	 *
+	 * @param indexId
+	 * @param archiveId
+	 * @param compressedData
+	 * @return
+	 * @throws IOException
+	 */
+	synchronized DataFileWriteResult writeSectors(int indexId, int archiveId, byte[] compressedData) throws IOException
 	{
 		int sector;
 		int startSector;
@@ -270,13 +440,6 @@ public class DataFile implements Closeable
 		DataFileWriteResult res = new DataFileWriteResult();
 		res.sector = startSector;
 		res.compressedLength = compressedData.length;
-
-		int length = revision != -1 ? compressedData.length - 2 : compressedData.length;
-		Crc32 crc32 = new Crc32();
-		crc32.update(compressedData, 0, length);
-		res.crc = crc32.getHash();
-
-		res.whirlpool = Whirlpool.getHash(compressedData, length);
 		return res;
 	}
 	
@@ -289,8 +452,6 @@ public class DataFile implements Closeable
 		if (compressedLength < 0 || compressedLength > 1000000)
 			throw new RuntimeException("Invalid data");
 
-		Crc32 crc32 = new Crc32();
-		crc32.update(b, 0, 5); // compression + length
 		
 		byte[] data;
 		int revision = -1;
@@ -301,8 +462,7 @@ public class DataFile implements Closeable
 				byte[] encryptedData = new byte[compressedLength];
 				stream.readBytes(encryptedData, 0, compressedLength);
 
-				crc32.update(encryptedData, 0, compressedLength);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
+				byte[] decryptedData = decrypt(encryptedData, keys);
 
 				if (stream.remaining() >= 2)
 				{
@@ -319,8 +479,7 @@ public class DataFile implements Closeable
 				byte[] encryptedData = new byte[compressedLength + 4];
 				stream.readBytes(encryptedData);
 
-				crc32.update(encryptedData, 0, encryptedData.length);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
+				byte[] decryptedData = decrypt(encryptedData, keys);
 
 				if (stream.remaining() >= 2)
 				{
@@ -347,8 +506,7 @@ public class DataFile implements Closeable
 				byte[] encryptedData = new byte[compressedLength + 4];
 				stream.readBytes(encryptedData);
 
-				crc32.update(encryptedData, 0, encryptedData.length);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
+				byte[] decryptedData = decrypt(encryptedData, keys);
 
 				if (stream.remaining() >= 2)
 				{
@@ -377,9 +535,10 @@ public class DataFile implements Closeable
 		DataFileReadResult res = new DataFileReadResult();
 		res.data = data;
 		res.revision = revision;
-		res.crc = crc32.getHash();
 		int length = revision != -1 ? b.length - 2 : b.length;
-		res.whirlpool = Whirlpool.getHash(b, length);
+		Hasher hasher = Hasher.hash(b, 0, length); // crc and whirlpool exclude the revision
+		res.crc = hasher.getCrc();
+		res.whirlpool = hasher.getWhirlpool();
 		res.compression = compression;
 		return res;
 	}
@@ -392,20 +551,20 @@ public class DataFile implements Closeable
 		switch (compression)
 		{
 			case CompressionType.NONE:
-				compressedData = data;
-				compressedData = encrypt(compressedData, compressedData.length, keys);
+				compressedData = keys != null ? Arrays.copyOf(data, data.length) : data;
+				compressedData = encrypt(compressedData, keys);
 				stream.writeInt(data.length);
 				break;
 			case CompressionType.BZ2:
 				compressedData = BZip2.compress(data);
-				compressedData = encrypt(compressedData, compressedData.length, keys);
+				compressedData = encrypt(compressedData, keys);
 
 				stream.writeInt(compressedData.length);
 				stream.writeInt(data.length);
 				break;
 			case CompressionType.GZ:
 				compressedData = GZip.compress(data);
-				compressedData = encrypt(compressedData, compressedData.length, keys);
+				compressedData = encrypt(compressedData, keys);
 				
 				stream.writeInt(compressedData.length);
 				stream.writeInt(data.length);
@@ -421,37 +580,37 @@ public class DataFile implements Closeable
 		return stream.flip();
 	}
 
-	private static byte[] decrypt(byte[] data, int length, int[] keys)
+	/**
+	 * Decrypt data in place
+	 *
+	 * @param data
+	 * @param keys xtea keys, or null if the data is not encrypted
+	 * @return
+	 */
+	private static byte[] decrypt(byte[] data, int[] keys)
 	{
 		if (keys == null)
 			return data;
 
-		try
-		{
-			Xtea xtea = new Xtea(keys);
-			return xtea.decrypt(data, length);
-		}
-		catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException | IllegalBlockSizeException | BadPaddingException ex)
-		{
-			logger.warn("unable to xtea decrypt", ex);
-			return null;
-		}
+		Xtea xtea = new Xtea(keys);
+		xtea.decrypt(data, 0, data.length);
+		return data;
 	}
 
-	private static byte[] encrypt(byte[] data, int length, int[] keys)
+	/**
+	 * Encrypt data in place
+	 *
+	 * @param data
+	 * @param keys xtea keys, or null to not encrypt the data
+	 * @return
+	 */
+	private static byte[] encrypt(byte[] data, int[] keys)
 	{
 		if (keys == null)
 			return data;
 
-		try
-		{
-			Xtea xtea = new Xtea(keys);
-			return xtea.encrypt(data, length);
-		}
-		catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException | IllegalBlockSizeException | BadPaddingException ex)
-		{
-			logger.warn("unable to xtea encrypt", ex);
-			return null;
-		}
+		Xtea xtea = new Xtea(keys);
+		xtea.encrypt(data, 0, data.length);
+		return data;
 	}
 }
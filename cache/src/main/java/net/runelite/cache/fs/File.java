@@ -46,7 +46,7 @@ public class File
 		int hash = 7;
 		hash = 97 * hash + this.fileId;
 		hash = 97 * hash + this.nameHash;
-		hash = 97 * hash + Arrays.hashCode(this.contents);
+		hash = 97 * hash + Arrays.hashCode(this.getContents());
 		return hash;
 	}
 
@@ -70,7 +70,7 @@ public class File
 		{
 			return false;
 		}
-		if (!Arrays.equals(this.contents, other.contents))
+		if (!Arrays.equals(this.getContents(), other.getContents()))
 		{
 			return false;
 		}
@@ -95,20 +95,46 @@ public class File
 	public void setNameHash(int nameHash)
 	{
 		this.nameHash = nameHash;
+		archive.setDirty(true);
 	}
 
 	public byte[] getContents()
 	{
-		return contents;
+		byte[] contents = this.contents;
+		if (contents != null)
+		{
+			return contents;
+		}
+
+		return archive.loadFile(this);
 	}
 
 	public void setContents(byte[] contents)
 	{
+		// load the other files of the archive first, which would
+		// otherwise overwrite these contents when they are loaded
+		archive.load();
 		this.contents = contents;
+		archive.setDirty(true);
+	}
+
+	byte[] getLoadedContents()
+	{
+		return contents;
+	}
+
+	void loadContents(byte[] contents)
+	{
+		this.contents = contents;
+	}
+
+	void unload()
+	{
+		this.contents = null;
 	}
 	
 	public int getSize()
 	{
-		return contents.length;
+		return getContents().length;
 	}
 }
@@ -24,21 +24,29 @@
  */
 package net.runelite.cache.fs;
 
-import com.google.common.io.Files;
+import com.google.common.util.concurrent.MoreExecutors;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import java.io.Closeable;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import net.runelite.cache.util.Djb2;
 import net.runelite.cache.io.InputStream;
 import net.runelite.cache.io.OutputStream;
 import net.runelite.cache.util.Crc32;
-import net.runelite.cache.util.Whirlpool;
 import net.runelite.cache.util.XteaKeyManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,8 +67,11 @@ public class Index implements Closeable
 	private int crc;
 	private byte[] whirlpool;
 	private int compression; // compression method of this index's data in 255
+	private boolean dirty = true; // whether or not the reference table has changed since it was loaded or saved
 
 	private final List<Archive> archives = new ArrayList<>();
+	private final Map<Integer, Archive> archivesById = new HashMap<>();
+	private volatile Map<Integer, Archive> archivesByName; // built on demand
 
 	public Index(Store store, IndexFile index, int id)
 	{
@@ -117,6 +128,11 @@ public class Index implements Closeable
 		return true;
 	}
 
+	public Store getStore()
+	{
+		return store;
+	}
+
 	public XteaKeyManager getXteaManager()
 	{
 		return xteaManager;
@@ -137,6 +153,12 @@ public class Index implements Closeable
 		return revision;
 	}
 
+	public void setRevision(int revision)
+	{
+		this.revision = revision;
+		this.dirty = true;
+	}
+
 	public int getCrc()
 	{
 		return crc;
@@ -170,65 +192,113 @@ public class Index implements Closeable
 	public Archive addArchive(int id)
 	{
 		Archive archive = new Archive(this, id);
-		this.archives.add(archive);
+		addArchive(archive);
 		return archive;
 	}
 
-	public Archive getArchive(int id)
+	private void addArchive(Archive archive)
+	{
+		this.archives.add(archive);
+		archivesById.putIfAbsent(archive.getArchiveId(), archive);
+		archivesByName = null;
+		dirty = true;
+	}
+
+	private void removeArchive(Archive archive)
 	{
+		archivesById.remove(archive.getArchiveId(), archive);
+		archivesByName = null;
+		dirty = true;
+	}
+
+	private void clearArchives()
+	{
+		archives.clear();
+		archivesById.clear();
+		archivesByName = null;
+		dirty = true;
+	}
+
+	/**
+	 * Called when the name of one of this index's archives changes
+	 */
+	void archiveRenamed()
+	{
+		archivesByName = null;
+		dirty = true;
+	}
+
+	/**
+	 * Whether or not this index has changed since it was loaded or saved,
+	 * either in its reference table or in any of its archives
+	 *
+	 * @return
+	 */
+	public boolean isDirty()
+	{
+		if (dirty)
+		{
+			return true;
+		}
+
 		for (Archive a : archives)
 		{
-			if (a.getArchiveId() == id)
+			if (a.isDirty())
 			{
-				return a;
+				return true;
 			}
 		}
-		return null;
+
+		return false;
+	}
+
+	public Archive getArchive(int id)
+	{
+		return archivesById.get(id);
 	}
 
 	public Archive findArchiveByName(String name)
 	{
 		int hash = Djb2.hash(name);
-		for (Archive a : archives)
+
+		Map<Integer, Archive> byName = archivesByName;
+		if (byName == null)
 		{
-			if (a.getNameHash() == hash)
+			byName = new HashMap<>(archives.size());
+			for (Archive a : archives)
 			{
-				return a;
+				byName.putIfAbsent(a.getNameHash(), a);
 			}
+			archivesByName = byName;
 		}
-		return null;
+
+		return byName.get(hash);
 	}
 
+	/**
+	 * Rebuild the crc and whirlpool of each archive, and the crc of this
+	 * index. Archives are compressed in parallel on the common fork join
+	 * pool, and their compressed data is kept for when they are saved.
+	 *
+	 * @throws IOException
+	 */
 	public void rebuildCrc() throws IOException
 	{
-		for (Archive a : archives)
-		{
-			assert this.index.getIndexFileId() == this.id;
-
-			int rev; // used for determining what part of compressedData to crc
-			byte[] compressedData;
-
-			if (a.getData() != null)
-			{
-				compressedData = a.getData(); // data was never decompressed or loaded
-				rev = -1; // assume that this data has no revision?
-			}
-			else
-			{
-				byte[] fileData = a.saveContents();
-				rev = a.getRevision();
-				compressedData = DataFile.compress(fileData, a.getCompression(), a.getRevision(), null);
-			}
-
-			int length = rev != -1 ? compressedData.length - 2 : compressedData.length;
-			Crc32 crc32 = new Crc32();
-			crc32.update(compressedData, 0, length);
-
-			int crc = crc32.getHash();
-			byte[] whirlpool = Whirlpool.getHash(compressedData, length);
+		rebuildCrc(submitCompression(ForkJoinPool.commonPool()));
+	}
 
-			a.setCrc(crc);
-			a.setWhirlpool(whirlpool);
+	/**
+	 * Rebuild the crcs of this index once the archives submitted with
+	 * {@link #submitCompression(ExecutorService)} have been compressed
+	 *
+	 * @param futures
+	 * @throws IOException
+	 */
+	void rebuildCrc(List<Future<byte[]>> futures) throws IOException
+	{
+		for (Future<byte[]> future : futures)
+		{
+			Store.await(future);
 		}
 
 		Crc32 crc = new Crc32();
@@ -246,6 +316,25 @@ public class Index implements Closeable
 	}
 
 	public void load() throws IOException
+	{
+		loadIndexData();
+		loadArchives();
+	}
+
+	/**
+	 * Load this index, decompressing its archives on the given executor.
+	 * Archives are kept in the same order as a serial load.
+	 *
+	 * @param executor
+	 * @throws IOException
+	 */
+	public void load(ExecutorService executor) throws IOException
+	{
+		loadIndexData();
+		loadArchives(submitArchives(executor));
+	}
+
+	void loadIndexData() throws IOException
 	{
 		logger.trace("Loading index {}", id);
 
@@ -257,7 +346,7 @@ public class Index implements Closeable
 		DataFileReadResult res = DataFile.decompress(indexData, null);
 		byte[] data = res.data;
 
-		archives.clear();
+		clearArchives();
 
 		readIndexData(data);
 
@@ -266,80 +355,287 @@ public class Index implements Closeable
 		this.compression = res.compression;
 		assert res.revision == -1;
 
-		this.loadArchives();
+		dirty = false;
 	}
 
 	public void save() throws IOException
 	{
+		save(submitCompression(ForkJoinPool.commonPool()));
+	}
+
+	/**
+	 * Save this index, writing each archive submitted with
+	 * {@link #submitCompression(ExecutorService)} as it is compressed
+	 *
+	 * @param futures
+	 * @throws IOException
+	 */
+	void save(List<Future<byte[]>> futures) throws IOException
+	{
+		assert futures.size() == archives.size();
+
 		// This updates archive CRCs for writeIndexData
-		saveArchives();
+		Iterator<Archive> it = archives.iterator();
+		for (Future<byte[]> future : futures)
+		{
+			saveArchive(it.next(), Store.await(future));
+		}
+
+		saveIndexData();
+	}
+
+	/**
+	 * Submit the compression and hashing of each archive of this index to
+	 * the executor
+	 *
+	 * @param executor
+	 * @return a future per archive, in archive order, which completes with
+	 * the compressed data of the archive
+	 */
+	List<Future<byte[]>> submitCompression(ExecutorService executor)
+	{
+		List<Future<byte[]>> futures = new ArrayList<>(archives.size());
+		for (Archive a : archives)
+		{
+			futures.add(executor.submit(a::compress));
+		}
+		return futures;
+	}
 
+	/**
+	 * Save only the archives of this index which have changed since they
+	 * were loaded or saved, appending them to the datafile. The reference
+	 * table is rewritten only if something has changed. The space used by
+	 * the previous data of the archives is not reclaimed until the store
+	 * is fully saved.
+	 *
+	 * @throws IOException
+	 */
+	public void saveChanges() throws IOException
+	{
+		if (!isDirty())
+		{
+			return;
+		}
+
+		for (Archive a : archives)
+		{
+			if (a.isDirty())
+			{
+				saveArchive(a);
+			}
+		}
+
+		saveIndexData();
+	}
+
+	private void saveIndexData() throws IOException
+	{
 		byte[] data = this.writeIndexData();
+		byte[] compressedData = DataFile.compress(data, this.compression, -1, null); // index data revision is always -1
+		saveIndexData(compressedData);
+	}
+
+	/**
+	 * Replace the archives of this index with those of a new reference
+	 * table. Archives with the same crc and revision as before are kept
+	 * as they are, including their data in the datafile.
+	 *
+	 * @param data decompressed index data
+	 * @return the archives which are new or have changed
+	 */
+	public List<Archive> update(byte[] data)
+	{
+		Map<Integer, Archive> oldArchives = new HashMap<>(archivesById);
+
+		clearArchives();
+		readIndexData(data);
+
+		List<Archive> changed = new ArrayList<>();
+
+		for (ListIterator<Archive> it = archives.listIterator(); it.hasNext();)
+		{
+			Archive archive = it.next();
+			Archive oldArchive = oldArchives.get(archive.getArchiveId());
 
+			if (oldArchive == null || oldArchive.isDirty()
+				|| oldArchive.getCrc() != archive.getCrc()
+				|| oldArchive.getRevision() != archive.getRevision())
+			{
+				changed.add(archive);
+				continue;
+			}
+
+			it.set(oldArchive);
+			archivesById.put(oldArchive.getArchiveId(), oldArchive);
+		}
+
+		archivesByName = null;
+		return changed;
+	}
+
+	/**
+	 * Write the data of an archive directly to the datafile. The archive
+	 * is then lazily loaded from it.
+	 *
+	 * @param archive
+	 * @param compressedData compressed data, followed by the archive revision
+	 * @throws IOException
+	 */
+	public void saveArchiveData(Archive archive, byte[] compressedData) throws IOException
+	{
+		DataFileWriteResult res = store.getData().write(this.id, archive.getArchiveId(), compressedData, archive.getRevision());
+
+		IndexEntry entry = new IndexEntry(this.index, archive.getArchiveId(), res.sector, res.compressedLength);
+		this.index.write(entry);
+
+		if (res.crc != archive.getCrc())
+		{
+			logger.warn("crc mismatch for archive {}/{}", this.id, archive.getArchiveId());
+		}
+
+		archive.setEntry(entry);
+	}
+
+	/**
+	 * Write the compressed index data of this index directly to the datafile
+	 *
+	 * @param compressedData
+	 * @throws IOException
+	 */
+	public void saveIndexData(byte[] compressedData) throws IOException
+	{
 		DataFile dataFile = store.getData();
 		IndexFile index255 = store.getIndex255();
 
-		byte[] compressedData = DataFile.compress(data, this.compression, -1, null); // index data revision is always -1
-		DataFileWriteResult res = dataFile.write(index255.getIndexFileId(), this.id, compressedData, revision);
-
+		DataFileWriteResult res = dataFile.write(index255.getIndexFileId(), this.id, compressedData, -1);
 		index255.write(new IndexEntry(index255, id, res.sector, res.compressedLength));
 
 		this.crc = res.crc;
 		this.whirlpool = res.whirlpool;
+		this.dirty = false;
 	}
 
 	public void saveTree(java.io.File to) throws IOException
 	{
-		java.io.File idx = new java.io.File(to, "" + this.getId());
-		idx.mkdirs();
+		saveTree(to.toPath(), MoreExecutors.newDirectExecutorService());
+	}
 
-		for (Archive a : archives)
+	/**
+	 * Write this index to a cache tree, writing its archives on the executor
+	 *
+	 * @param to root of the tree
+	 * @param executor
+	 * @throws IOException
+	 */
+	public void saveTree(Path to, ExecutorService executor) throws IOException
+	{
+		for (Future<?> future : submitSaveTree(to, executor))
 		{
-			a.saveTree(idx);
+			Store.await(future);
 		}
+	}
 
-		java.io.File rev = new java.io.File(to, this.getId() + ".rev");
-		Files.write("" + this.getRevision(), rev, Charset.defaultCharset());
+	List<Future<?>> submitSaveTree(Path to, ExecutorService executor) throws IOException
+	{
+		Path idx = to.resolve("" + this.getId());
+		Files.createDirectories(idx);
+
+		Archive.writeTreeInt(to.resolve(this.getId() + ".rev"), this.getRevision());
+
+		List<Future<?>> futures = new ArrayList<>(archives.size());
+		for (Archive a : archives)
+		{
+			futures.add(executor.submit(() ->
+			{
+				a.saveTree(idx);
+				return null;
+			}));
+		}
+		return futures;
 	}
 
 	public void loadTree(java.io.File parent, java.io.File to) throws IOException
 	{
-		for (java.io.File f : to.listFiles())
+		loadTree(parent.toPath(), to.toPath(), MoreExecutors.newDirectExecutorService());
+	}
+
+	/**
+	 * Read this index from a cache tree, reading its archives on the executor
+	 *
+	 * @param parent root of the tree
+	 * @param to directory of this index in the tree
+	 * @param executor
+	 * @throws IOException
+	 */
+	public void loadTree(Path parent, Path to, ExecutorService executor) throws IOException
+	{
+		loadTree(parent, submitLoadTree(to, executor));
+	}
+
+	List<Future<Archive>> submitLoadTree(Path to, ExecutorService executor) throws IOException
+	{
+		List<Future<Archive>> futures = new ArrayList<>();
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(to))
 		{
-			if (f.isDirectory())
+			for (Path f : stream)
 			{
-				int id = Integer.parseInt(f.getName());
+				String name = f.getFileName().toString();
 
-				Archive archive = new Archive(this, id);
-				archive.loadTree(to, f);
-				archives.add(archive);
-			}
-			else if (f.getName().endsWith(".dat"))
-			{
-				// one file. archiveId-fileId-name
-				String[] parts = Files.getNameWithoutExtension(f.getName()).split("-");
+				if (Files.isDirectory(f))
+				{
+					int id = Integer.parseInt(name);
+
+					futures.add(executor.submit(() ->
+					{
+						Archive archive = new Archive(this, id);
+						archive.loadTree(to, f);
+						return archive;
+					}));
+				}
+				else if (name.endsWith(".dat"))
+				{
+					// one file. archiveId-fileId-name
+					String[] parts = Archive.getNameWithoutExtension(f).split("-");
 
-				int id = Integer.parseInt(parts[0]);
+					int id = Integer.parseInt(parts[0]);
 
-				Archive archive = new Archive(this, id);
-				archive.loadTreeSingleFile(to, f);
-				archives.add(archive);
-			}
-			else if (f.getName().endsWith(".datc"))
-			{
-				// packed data
-				String[] parts = Files.getNameWithoutExtension(f.getName()).split("-");
+					futures.add(executor.submit(() ->
+					{
+						Archive archive = new Archive(this, id);
+						archive.loadTreeSingleFile(to, f);
+						return archive;
+					}));
+				}
+				else if (name.endsWith(".datc"))
+				{
+					// packed data
+					String[] parts = Archive.getNameWithoutExtension(f).split("-");
 
-				int id = Integer.parseInt(parts[0]);
+					int id = Integer.parseInt(parts[0]);
 
-				Archive archive = new Archive(this, id);
-				archive.loadTreeData(to, f);
-				archives.add(archive);
+					futures.add(executor.submit(() ->
+					{
+						Archive archive = new Archive(this, id);
+						archive.loadTreeData(to, f);
+						return archive;
+					}));
+				}
 			}
 		}
 
-		String str = Files.readFirstLine(new java.io.File(parent, this.getId() + ".rev"), Charset.defaultCharset());
-		revision = Integer.parseInt(str);
+		return futures;
+	}
+
+	void loadTree(Path parent, List<Future<Archive>> futures) throws IOException
+	{
+		for (Future<Archive> future : futures)
+		{
+			addArchive(Store.await(future));
+		}
+
+		revision = Archive.readTreeInt(parent.resolve(this.getId() + ".rev"));
 
 		Collections.sort(archives, (ar1, ar2) -> Integer.compare(ar1.getArchiveId(), ar2.getArchiveId()));
 	}
@@ -368,7 +664,7 @@ public class Index implements Closeable
 			{
 				archive = lastArchiveId += protocol >= 7 ? stream.readBigSmart() : stream.readUnsignedShort();
 				Archive a = new Archive(this, archive);
-				this.archives.add(a);
+				addArchive(a);
 			}
 
 			if (named)
@@ -440,61 +736,121 @@ public class Index implements Closeable
 		// get data from index file
 		for (Archive a : new ArrayList<>(archives))
 		{
-			IndexEntry entry = this.index.read(a.getArchiveId());
-			if (entry == null)
+			if (!loadArchive(a))
 			{
-				logger.debug("can't read archive " + a.getArchiveId() + " from index " + this.id);
 				archives.remove(a); // is this the correct behavior?
-				continue;
+				removeArchive(a);
 			}
+		}
+	}
 
-			assert this.index.getIndexFileId() == this.id;
-			assert entry.getId() == a.getArchiveId();
+	/**
+	 * Submit the loading of each archive of this index to the executor
+	 *
+	 * @param executor
+	 * @return a future per archive, in archive order, which completes with
+	 * whether or not the archive was loaded
+	 */
+	List<Future<Boolean>> submitArchives(ExecutorService executor)
+	{
+		List<Future<Boolean>> futures = new ArrayList<>(archives.size());
+		for (Archive a : archives)
+		{
+			futures.add(executor.submit(() -> loadArchive(a)));
+		}
+		return futures;
+	}
 
-			logger.trace("Loading archive {} for index {} from sector {} length {}", a.getArchiveId(), id, entry.getSector(), entry.getLength());
+	/**
+	 * Wait for archives submitted with {@link #submitArchives(ExecutorService)}
+	 * to load, and remove the archives which couldn't be read
+	 *
+	 * @param futures
+	 * @throws IOException
+	 */
+	void loadArchives(List<Future<Boolean>> futures) throws IOException
+	{
+		assert futures.size() == archives.size();
 
-			byte[] archiveData = store.getData().read(this.id, entry.getId(), entry.getSector(), entry.getLength());
-			a.setData(archiveData);
+		Iterator<Archive> it = archives.iterator();
+		for (Future<Boolean> future : futures)
+		{
+			Archive a = it.next();
 
-			if (this.xteaManager != null)
+			if (!Store.await(future))
 			{
-				continue; // can't decrypt this yet
+				it.remove();
+				removeArchive(a);
 			}
+		}
+	}
 
+	private boolean loadArchive(Archive a) throws IOException
+	{
+		IndexEntry entry = this.index.read(a.getArchiveId());
+		if (entry == null)
+		{
+			logger.debug("can't read archive " + a.getArchiveId() + " from index " + this.id);
+			return false;
+		}
+
+		assert this.index.getIndexFileId() == this.id;
+		assert entry.getId() == a.getArchiveId();
+
+		if (store.isLazy())
+		{
+			a.setEntry(entry);
+			return true;
+		}
+
+		logger.trace("Loading archive {} for index {} from sector {} length {}", a.getArchiveId(), id, entry.getSector(), entry.getLength());
+
+		byte[] archiveData = store.getData().read(this.id, entry.getId(), entry.getSector(), entry.getLength());
+		a.setData(archiveData);
+
+		if (this.xteaManager == null)
+		{
 			a.decompressAndLoad(null);
 		}
+		// else can't decrypt this yet
+
+		a.setDirty(false);
+		return true;
 	}
 
 	public void saveArchives() throws IOException
 	{
 		for (Archive a : archives)
 		{
-			assert this.index.getIndexFileId() == this.id;
-			DataFile data = store.getData();
+			saveArchive(a);
+		}
+	}
 
-			int rev; // used for determining what part of compressedData to crc
-			byte[] compressedData;
+	private void saveArchive(Archive a) throws IOException
+	{
+		saveArchive(a, a.compress());
+	}
 
-			if (a.getData() != null)
-			{
-				compressedData = a.getData(); // data was never decompressed or loaded
-				rev = -1; // assume that this data has no revision?
-			}
-			else
-			{
-				byte[] fileData = a.saveContents();
-				rev = a.getRevision();
-				compressedData = DataFile.compress(fileData, a.getCompression(), a.getRevision(), null);
-			}
+	/**
+	 * Write the compressed data of an archive to the datafile. The crc and
+	 * whirlpool of the archive are already set by compressing it.
+	 *
+	 * @param a
+	 * @param compressedData
+	 * @throws IOException
+	 */
+	private void saveArchive(Archive a, byte[] compressedData) throws IOException
+	{
+		assert this.index.getIndexFileId() == this.id;
+		DataFile data = store.getData();
 
-			DataFileWriteResult res = data.write(this.id, a.getArchiveId(), compressedData, rev);
-			this.index.write(new IndexEntry(this.index, a.getArchiveId(), res.sector, res.compressedLength));
+		DataFileWriteResult res = data.writeSectors(this.id, a.getArchiveId(), compressedData);
+		IndexEntry entry = new IndexEntry(this.index, a.getArchiveId(), res.sector, res.compressedLength);
+		this.index.write(entry);
 
-			logger.trace("Saved archive {}/{} at sector {}, compressed length {}", this.getId(), a.getArchiveId(), res.sector, res.compressedLength);
+		logger.trace("Saved archive {}/{} at sector {}, compressed length {}", this.getId(), a.getArchiveId(), res.sector, res.compressedLength);
 
-			a.setCrc(res.crc);
-			a.setWhirlpool(res.whirlpool);
-		}
+		a.saved(entry);
 	}
 
 	public byte[] writeIndexData()
@@ -24,14 +24,29 @@
  */
 package net.runelite.cache.fs;
 
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import net.runelite.cache.IndexType;
 import net.runelite.cache.util.XteaKeyManager;
 import org.slf4j.Logger;
@@ -48,6 +63,10 @@ public class Store implements Closeable
 	private final DataFile data;
 	private final IndexFile index255;
 	private final List<Index> indexes = new ArrayList<>();
+	private final Map<Integer, Index> indexesById = new HashMap<>();
+	private final ArchiveCache archiveCache = new ArchiveCache();
+
+	private boolean lazy;
 
 	public Store(File folder) throws IOException
 	{
@@ -110,18 +129,16 @@ public class Store implements Closeable
 
 	public final Index addIndex(int id) throws FileNotFoundException
 	{
-		for (Index i : indexes)
+		if (indexesById.containsKey(id))
 		{
-			if (i.getIndex().getIndexFileId() == id)
-			{
-				throw new IllegalArgumentException("index " + id + " already exists");
-			}
+			throw new IllegalArgumentException("index " + id + " already exists");
 		}
 
 		IndexFile indexFile = new IndexFile(this, id, new File(folder, MAIN_FILE_CACHE_IDX + id));
 		Index index = new Index(this, indexFile, id);
 
 		this.indexes.add(index);
+		this.indexesById.put(id, index);
 
 		return index;
 	}
@@ -130,6 +147,7 @@ public class Store implements Closeable
 	{
 		assert indexes.contains(index);
 		indexes.remove(index);
+		indexesById.remove(index.getId(), index);
 	}
 
 	/*
@@ -138,8 +156,17 @@ public class Store implements Closeable
 	 */
 	public void rebuildCrc() throws IOException
 	{
+		// compress the archives of every index at once, so small indexes don't limit the parallelism
+		List<List<Future<byte[]>>> futures = new ArrayList<>(indexes.size());
 		for (Index i : indexes)
-			i.rebuildCrc();
+		{
+			futures.add(i.submitCompression(ForkJoinPool.commonPool()));
+		}
+
+		for (int i = 0; i < indexes.size(); ++i)
+		{
+			indexes.get(i).rebuildCrc(futures.get(i));
+		}
 	}
 
 	public void load() throws IOException
@@ -150,8 +177,73 @@ public class Store implements Closeable
 		}
 	}
 
+	/**
+	 * Load the store, reading the indexes and decompressing their archives
+	 * on the given executor. The resulting indexes, archives, and files are
+	 * in the same order as {@link #load()}.
+	 *
+	 * @param executor
+	 * @throws IOException
+	 */
+	public void load(ExecutorService executor) throws IOException
+	{
+		List<Future<?>> indexFutures = new ArrayList<>(indexes.size());
+		for (Index i : indexes)
+		{
+			indexFutures.add(executor.submit(() ->
+			{
+				i.loadIndexData();
+				return null;
+			}));
+		}
+
+		for (Future<?> future : indexFutures)
+		{
+			await(future);
+		}
+
+		// submit the archives of every index before waiting on any of them
+		List<List<Future<Boolean>>> archiveFutures = new ArrayList<>(indexes.size());
+		for (Index i : indexes)
+		{
+			archiveFutures.add(i.submitArchives(executor));
+		}
+
+		for (int i = 0; i < indexes.size(); ++i)
+		{
+			indexes.get(i).loadArchives(archiveFutures.get(i));
+		}
+	}
+
+	static <T> T await(Future<T> future) throws IOException
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+		catch (ExecutionException ex)
+		{
+			Throwables.propagateIfPossible(ex.getCause(), IOException.class);
+			throw new IOException(ex.getCause());
+		}
+	}
+
 	public void save() throws IOException
 	{
+		// lazily loaded archives are read from the data file, so read them before clearing it
+		for (Index i : indexes)
+		{
+			for (Archive a : i.getArchives())
+			{
+				a.detach();
+			}
+		}
+
 		logger.debug("Clearing data and indexes in preparation for store save");
 
 		data.clear();
@@ -161,39 +253,193 @@ public class Store implements Closeable
 			i.clear();
 		}
 
+		// archives are compressed in parallel, and written in order as they are compressed
+		List<List<Future<byte[]>>> futures = new ArrayList<>(indexes.size());
 		for (Index i : indexes)
 		{
-			i.save();
+			futures.add(i.submitCompression(ForkJoinPool.commonPool()));
+		}
+
+		for (int i = 0; i < indexes.size(); ++i)
+		{
+			indexes.get(i).save(futures.get(i));
+		}
+	}
+
+	/**
+	 * Save only the archives and indexes which have changed since they were
+	 * loaded or saved, without rewriting the rest of the store. Space used
+	 * by replaced data is reclaimed by the next {@link #save()}.
+	 *
+	 * @throws IOException
+	 */
+	public void saveChanges() throws IOException
+	{
+		for (Index i : indexes)
+		{
+			i.saveChanges();
 		}
 	}
 
 	public void saveTree(java.io.File to) throws IOException
 	{
+		saveTree(to.toPath(), MoreExecutors.newDirectExecutorService());
+	}
+
+	/**
+	 * Write this store as a cache tree, writing archives on the executor.
+	 * The tree may be on any filesystem, see {@link #saveTreeZip(File, ExecutorService)}.
+	 *
+	 * @param to root of the tree
+	 * @param executor
+	 * @throws IOException
+	 */
+	public void saveTree(Path to, ExecutorService executor) throws IOException
+	{
+		// submit the archives of every index before waiting on any of them
+		List<Future<?>> futures = new ArrayList<>();
 		for (Index i : indexes)
 		{
-			i.saveTree(to);
+			futures.addAll(i.submitSaveTree(to, executor));
+		}
+
+		for (Future<?> future : futures)
+		{
+			await(future);
+		}
+	}
+
+	/**
+	 * Write this store as a cache tree contained in a single zip file,
+	 * replacing the file if it exists
+	 *
+	 * @param zip
+	 * @param executor
+	 * @throws IOException
+	 */
+	public void saveTreeZip(File zip, ExecutorService executor) throws IOException
+	{
+		Files.deleteIfExists(zip.toPath());
+
+		try (FileSystem fs = openZip(zip, true))
+		{
+			saveTree(fs.getPath("/"), executor);
 		}
 	}
 
 	public void loadTree(java.io.File from) throws IOException
 	{
-		for (java.io.File idx : from.listFiles())
+		loadTree(from.toPath(), MoreExecutors.newDirectExecutorService());
+	}
+
+	/**
+	 * Read this store from a cache tree, reading archives on the executor
+	 *
+	 * @param from root of the tree
+	 * @param executor
+	 * @throws IOException
+	 */
+	public void loadTree(Path from, ExecutorService executor) throws IOException
+	{
+		List<Index> loaded = new ArrayList<>();
+		List<List<Future<Archive>>> futures = new ArrayList<>();
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(from, Files::isDirectory))
 		{
-			if (!idx.isDirectory())
+			for (Path idx : stream)
 			{
-				continue;
+				int id = Integer.parseInt(idx.getFileName().toString());
+				IndexFile indexFile = new IndexFile(this, id, new File(folder, MAIN_FILE_CACHE_IDX + id));
+				Index index = new Index(this, indexFile, id);
+
+				loaded.add(index);
+				futures.add(index.submitLoadTree(idx, executor));
 			}
+		}
 
-			int id = Integer.parseInt(idx.getName());
-			IndexFile indexFile = new IndexFile(this, id, new File(folder, MAIN_FILE_CACHE_IDX + id));
-			Index index = new Index(this, indexFile, id);
-			index.loadTree(from, idx);
+		for (int i = 0; i < loaded.size(); ++i)
+		{
+			Index index = loaded.get(i);
+			index.loadTree(from, futures.get(i));
 			indexes.add(index);
+			indexesById.putIfAbsent(index.getId(), index);
 		}
 
 		Collections.sort(indexes, (idx1, idx2) -> Integer.compare(idx1.getId(), idx2.getId()));
 	}
 
+	/**
+	 * Read this store from a cache tree contained in a zip file
+	 *
+	 * @param zip
+	 * @param executor
+	 * @throws IOException
+	 */
+	public void loadTreeZip(File zip, ExecutorService executor) throws IOException
+	{
+		try (FileSystem fs = openZip(zip, false))
+		{
+			loadTree(fs.getPath("/"), executor);
+		}
+	}
+
+	private static FileSystem openZip(File zip, boolean create) throws IOException
+	{
+		URI uri = URI.create("jar:" + zip.toURI());
+		Map<String, String> env = new HashMap<>();
+		if (create)
+		{
+			env.put("create", "true");
+		}
+		return FileSystems.newFileSystem(uri, env);
+	}
+
+	public boolean isLazy()
+	{
+		return lazy;
+	}
+
+	/**
+	 * Set whether or not archives are lazily loaded. Lazily loaded archives
+	 * are not read or decompressed until the contents of one of their files
+	 * are requested.
+	 *
+	 * @param lazy
+	 */
+	public void setLazy(boolean lazy)
+	{
+		this.lazy = lazy;
+	}
+
+	/**
+	 * Set the maximum size of the contents of lazily loaded archives to
+	 * keep in memory. Unmodified archives are unloaded, least recently
+	 * loaded first, when this is exceeded.
+	 *
+	 * @param size maximum size in bytes
+	 */
+	public void setLazyCacheSize(long size)
+	{
+		archiveCache.setMaximumSize(size);
+	}
+
+	/**
+	 * Set whether or not reads of the data file are memory mapped
+	 *
+	 * @param mapped
+	 * @throws IOException
+	 * @see DataFile#setMapped(boolean)
+	 */
+	public void setMapped(boolean mapped) throws IOException
+	{
+		data.setMapped(mapped);
+	}
+
+	ArchiveCache getArchiveCache()
+	{
+		return archiveCache;
+	}
+
 	public DataFile getData()
 	{
 		return data;
@@ -216,13 +462,6 @@ public class Store implements Closeable
 
 	public final Index findIndex(int id)
 	{
-		for (Index i : indexes)
-		{
-			if (i.getId() == id)
-			{
-				return i;
-			}
-		}
-		return null;
+		return indexesById.get(id);
 	}
 }
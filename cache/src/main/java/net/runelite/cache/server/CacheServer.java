@@ -25,6 +25,7 @@
 package net.runelite.cache.server;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
@@ -50,11 +51,13 @@ public class CacheServer implements AutoCloseable
 
 	private final Store store;
 	private final int revision;
+	private final ResponseCache responseCache;
 
 	public CacheServer(Store store, int revision)
 	{
 		this.store = store;
 		this.revision = revision;
+		this.responseCache = new ResponseCache(store, PooledByteBufAllocator.DEFAULT);
 	}
 
 	public void start()
@@ -63,6 +66,7 @@ public class CacheServer implements AutoCloseable
 		b.group(group)
 			.channel(NioServerSocketChannel.class)
 			.option(ChannelOption.TCP_NODELAY, true)
+			.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
 			.childHandler(new ChannelInitializer<SocketChannel>()
 			{
 				@Override
@@ -90,6 +94,29 @@ public class CacheServer implements AutoCloseable
 	{
 		channel.close().syncUninterruptibly();
 		group.shutdownGracefully();
+		responseCache.invalidate();
+	}
+
+	/**
+	 * Drop all cached responses. Responses are rebuilt automatically when
+	 * an archive is changed or saved, or the crc or revision of an index
+	 * changes, so this is only needed if the store was modified without
+	 * updating them.
+	 */
+	public void invalidate()
+	{
+		responseCache.invalidate();
+	}
+
+	/**
+	 * Drop the cached response for an archive
+	 *
+	 * @param index
+	 * @param archive
+	 */
+	public void invalidate(int index, int archive)
+	{
+		responseCache.invalidate(index, archive);
 	}
 
 	public int getRevision()
@@ -101,4 +128,9 @@ public class CacheServer implements AutoCloseable
 	{
 		return store;
 	}
+
+	ResponseCache getResponseCache()
+	{
+		return responseCache;
+	}
 }
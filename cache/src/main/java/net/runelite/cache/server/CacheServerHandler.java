@@ -25,19 +25,13 @@
 package net.runelite.cache.server;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
-import java.io.IOException;
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import net.runelite.cache.downloader.requests.ConnectionInfo;
 import net.runelite.cache.downloader.requests.HelloHandshake;
-import net.runelite.cache.fs.Archive;
-import net.runelite.cache.fs.CompressionType;
-import net.runelite.cache.fs.DataFile;
-import net.runelite.cache.fs.Index;
-import net.runelite.cache.fs.Store;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,23 +39,34 @@ public class CacheServerHandler extends SimpleChannelInboundHandler<ByteBuf>
 {
 	private static final Logger logger = LoggerFactory.getLogger(CacheServerHandler.class);
 
+	/**
+	 * maximum number of responses written before yielding the event loop
+	 */
+	private static final int MAX_RESPONSES_PER_BATCH = 32;
+
+	/**
+	 * number of queued requests at which reading from the client stops
+	 */
+	private static final int MAX_QUEUED_REQUESTS = 256;
+
 	private final CacheServer server;
-	private final Store store;
 
 	private ClientState state = ClientState.HANDSHAKING;
 	private final ByteBuf buffer = Unpooled.buffer();
 
+	// queued requests, as (index << 16) | archive
+	private final Deque<Integer> urgent = new ArrayDeque<>();
+	private final Deque<Integer> prefetch = new ArrayDeque<>();
+	private boolean serveScheduled;
+
 	public CacheServerHandler(CacheServer server)
 	{
 		this.server = server;
-		this.store = server.getStore();
 	}
 
 	@Override
 	protected void channelRead0(ChannelHandlerContext ctx, ByteBuf buf) throws Exception
 	{
-		System.out.println(ByteBufUtil.prettyHexDump(buf));
-
 		buffer.writeBytes(buf);
 
 		int last = -1;
@@ -86,6 +91,32 @@ public class CacheServerHandler extends SimpleChannelInboundHandler<ByteBuf>
 		buffer.discardReadBytes();
 	}
 
+	@Override
+	public void channelReadComplete(ChannelHandlerContext ctx) throws Exception
+	{
+		// respond to everything requested in this read at once
+		serve(ctx);
+		super.channelReadComplete(ctx);
+	}
+
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception
+	{
+		if (ctx.channel().isWritable())
+		{
+			serve(ctx);
+		}
+		super.channelWritabilityChanged(ctx);
+	}
+
+	@Override
+	public void channelInactive(ChannelHandlerContext ctx) throws Exception
+	{
+		urgent.clear();
+		prefetch.clear();
+		super.channelInactive(ctx);
+	}
+
 	private void handshake(ChannelHandlerContext ctx, ByteBuf buf)
 	{
 		if (buf.readableBytes() < 5)
@@ -147,130 +178,91 @@ public class CacheServerHandler extends SimpleChannelInboundHandler<ByteBuf>
 			return;
 		}
 
-		byte requesting255 = buf.readByte();
+		byte requesting255 = buf.readByte(); // urgent, rather than prefetch
 		int index = buf.readByte() & 0xFF;
 		int archiveId = buf.readShort() & 0xFFFF;
 
-		if (index == 255)
+		logger.debug("Client {} requests index {} archive {}, urgent {}", ctx.channel().remoteAddress(), index, archiveId, requesting255);
+
+		int request = (index << 16) | archiveId;
+		if (requesting255 != 0)
 		{
-			handle255(ctx, requesting255, index, archiveId);
+			urgent.add(request);
 		}
 		else
 		{
-			handleRequest(ctx, index, archiveId);
+			prefetch.add(request);
+		}
+
+		if (urgent.size() + prefetch.size() >= MAX_QUEUED_REQUESTS)
+		{
+			// stop reading requests until the queued ones are served
+			ctx.channel().config().setAutoRead(false);
 		}
 	}
 
-	private void handle255(ChannelHandlerContext ctx, byte requesting255, int index, int archiveId)
+	/**
+	 * Write responses to queued requests, urgent requests first, while the
+	 * channel is writable. At most {@link #MAX_RESPONSES_PER_BATCH} responses
+	 * are written at once, with the rest written once other channels on the
+	 * event loop have been processed.
+	 *
+	 * @param ctx
+	 */
+	private void serve(ChannelHandlerContext ctx)
 	{
-		logger.info("Client {} requests 255 {}, index {}, archive {}", ctx.channel().remoteAddress(), requesting255, index, archiveId);
+		int written = 0;
 
-		if (archiveId == 255)
+		while (ctx.channel().isWritable() && written < MAX_RESPONSES_PER_BATCH)
 		{
-			// index 255 data, for each index:
-			// 4 byte crc
-			// 4 byte revision
-			ByteBuf buffer = Unpooled.buffer();
-			for (Index i : store.getIndexes())
+			Integer request = urgent.poll();
+			if (request == null)
 			{
-				buffer.writeInt(i.getCrc());
-				buffer.writeInt(i.getRevision());
+				request = prefetch.poll();
+				if (request == null)
+				{
+					break;
+				}
 			}
 
-			byte[] compressed = compress(CompressionType.NONE, Arrays.copyOf(buffer.array(), buffer.readableBytes()));
-			byte[] packed = addHeader(index, archiveId, compressed);
-			byte[] chunked = chunk(packed);
-
-			ctx.writeAndFlush(Unpooled.wrappedBuffer(chunked));
+			if (respond(ctx, request >>> 16, request & 0xFFFF))
+			{
+				++written;
+			}
 		}
-		else
-		{
-			Index i = store.findIndex(archiveId);
-			assert i != null;
-
-			byte[] indexData = i.writeIndexData();
-
-			byte[] compressed = compress(CompressionType.NONE, indexData);
-			byte[] packed = addHeader(255, archiveId, compressed);
-			byte[] chunked = chunk(packed);
 
-			ctx.writeAndFlush(Unpooled.wrappedBuffer(chunked));
+		if (written > 0)
+		{
+			ctx.flush();
 		}
-	}
-
-	private void handleRequest(ChannelHandlerContext ctx, int index, int archiveId)
-	{
-		logger.info("Client {} requests index {} archive {}", ctx.channel().remoteAddress(), index, archiveId);
 
-		Index i = store.findIndex(index);
-		assert i != null;
-
-		Archive archive = i.getArchive(archiveId);
-		assert archive != null;
-
-		byte[] packed;
-		if (archive.getData() != null)
+		if (!ctx.channel().config().isAutoRead() && urgent.size() + prefetch.size() < MAX_QUEUED_REQUESTS)
 		{
-			byte[] data = archive.getData(); // is compressed, includes length and type
-			packed = addHeader(index, archiveId, Arrays.copyOf(data, data.length - 2)); // compressed size includes revision..
+			ctx.channel().config().setAutoRead(true);
 		}
-		else
-		{
-			byte[] data = archive.saveContents();
-			data = compress(archive.getCompression(), data);
 
-			packed = addHeader(index, archiveId, data);
+		if (written == MAX_RESPONSES_PER_BATCH && ctx.channel().isWritable() && !serveScheduled
+			&& (!urgent.isEmpty() || !prefetch.isEmpty()))
+		{
+			serveScheduled = true;
+			ctx.executor().execute(() ->
+			{
+				serveScheduled = false;
+				serve(ctx);
+			});
 		}
-
-		byte[] chunked = chunk(packed);
-
-		ctx.writeAndFlush(Unpooled.wrappedBuffer(chunked));
 	}
 
-	private byte[] compress(int compression, byte[] data)
+	private boolean respond(ChannelHandlerContext ctx, int index, int archiveId)
 	{
-		try
+		ByteBuf response = server.getResponseCache().get(index, archiveId);
+		if (response == null)
 		{
-			return DataFile.compress(data, compression, -1, null);
+			logger.warn("Client {} requested nonexistent index {} archive {}", ctx.channel().remoteAddress(), index, archiveId);
+			return false;
 		}
-		catch (IOException ex)
-		{
-			throw new RuntimeException(ex);
-		}
-	}
-
-	/**
-	 * add header to archive
-	 *
-	 * @param index
-	 * @param archive
-	 * @param file compressed archive
-	 * @return
-	 */
-	private byte[] addHeader(int index, int archive, byte[] file)
-	{
-		// archive file header
-		// 1 byte index
-		// 2 byte archive
 
-		ByteBuf buf = Unpooled.buffer();
-		buf.writeByte((byte) index);
-		buf.writeShort((short) archive);
-		buf.writeBytes(file);
-
-		return Arrays.copyOf(buf.array(), buf.readableBytes());
-	}
-
-	/**
-	 * Insert in chunk markers to data
-	 *
-	 * @param in
-	 * @return
-	 */
-	private byte[] chunk(byte[] in)
-	{
-		Chunker chunker = new Chunker(in);
-		return chunker.chunkData();
+		ctx.write(response, ctx.voidPromise());
+		return true;
 	}
-
 }
@@ -51,8 +51,19 @@ public class Chunker
 	 */
 	public byte[] chunkData()
 	{
-		ByteBuf buf = Unpooled.buffer();
+		ByteBuf buf = Unpooled.buffer(getChunkedLength());
+		chunkData(buf);
+		return Arrays.copyOf(buf.array(), buf.readableBytes());
+	}
 
+	/**
+	 * Split data into chunks as {@link #chunkData()} does, writing them
+	 * to the given buffer
+	 *
+	 * @param buf
+	 */
+	public void chunkData(ByteBuf buf)
+	{
 		int pos = 0;
 		int remaining = data.length;
 
@@ -72,7 +83,22 @@ public class Chunker
 			pos += put;
 			remaining -= put;
 		}
+	}
 
-		return Arrays.copyOf(buf.array(), buf.readableBytes());
+	/**
+	 * Get the length of the data once it has been chunked
+	 *
+	 * @return
+	 */
+	public int getChunkedLength()
+	{
+		if (data.length <= CHUNK_SIZE)
+		{
+			return data.length;
+		}
+
+		int remaining = data.length - CHUNK_SIZE;
+		int markers = (remaining + CHUNK_SIZE - 2) / (CHUNK_SIZE - 1);
+		return data.length + markers;
 	}
 }
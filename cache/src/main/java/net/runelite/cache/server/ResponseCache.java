@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.CompressionType;
+import net.runelite.cache.fs.DataFile;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.io.OutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the responses to archive requests, with their header and chunk
+ * markers, as they are sent to clients. Responses are built when first
+ * requested, and rebuilt once the archive they were built from is changed
+ * or saved, or the crc or revision of the index they were built from changes.
+ */
+class ResponseCache
+{
+	private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+	private final Store store;
+	private final ByteBufAllocator allocator;
+	private final Map<Integer, Response> responses = new HashMap<>();
+	private int builds;
+
+	ResponseCache(Store store, ByteBufAllocator allocator)
+	{
+		this.store = store;
+		this.allocator = allocator;
+	}
+
+	/**
+	 * Get the response to a request for an archive. Responses are built
+	 * without holding the lock, so a slow build doesn't hold up requests
+	 * for other archives.
+	 *
+	 * @param index
+	 * @param archiveId
+	 * @return a duplicate of the response which must be released, or null
+	 * if there is no such archive
+	 */
+	ByteBuf get(int index, int archiveId)
+	{
+		int key = (index << 16) | archiveId;
+
+		synchronized (this)
+		{
+			Response response = responses.get(key);
+			if (response != null)
+			{
+				if (response.isValid())
+				{
+					return response.buffer.retainedDuplicate();
+				}
+
+				logger.debug("Response for index {} archive {} is out of date", index, archiveId);
+
+				responses.remove(key);
+				response.buffer.release();
+			}
+		}
+
+		Response built = build(index, archiveId);
+		if (built == null)
+		{
+			return null;
+		}
+
+		synchronized (this)
+		{
+			Response response = responses.get(key);
+			if (response != null && response.isValid())
+			{
+				// another request built it first
+				built.buffer.release();
+				return response.buffer.retainedDuplicate();
+			}
+
+			if (response != null)
+			{
+				response.buffer.release();
+			}
+
+			responses.put(key, built);
+			++builds;
+			return built.buffer.retainedDuplicate();
+		}
+	}
+
+	/**
+	 * Get the number of responses which have been built and cached
+	 *
+	 * @return
+	 */
+	synchronized int getBuilds()
+	{
+		return builds;
+	}
+
+	/**
+	 * Drop the cached response for an archive
+	 *
+	 * @param index
+	 * @param archiveId
+	 */
+	synchronized void invalidate(int index, int archiveId)
+	{
+		Response response = responses.remove((index << 16) | archiveId);
+		if (response != null)
+		{
+			response.buffer.release();
+		}
+	}
+
+	/**
+	 * Drop all cached responses
+	 */
+	synchronized void invalidate()
+	{
+		for (Response response : responses.values())
+		{
+			response.buffer.release();
+		}
+		responses.clear();
+	}
+
+	private Response build(int index, int archiveId)
+	{
+		if (index == 255)
+		{
+			if (archiveId == 255)
+			{
+				return buildIndexes();
+			}
+
+			return buildIndex(archiveId);
+		}
+
+		Index i = store.findIndex(index);
+		if (i == null)
+		{
+			return null;
+		}
+
+		Archive archive = i.getArchive(archiveId);
+		if (archive == null)
+		{
+			return null;
+		}
+
+		int modCount = archive.getModCount(); // before reading the data, in case it changes meanwhile
+		byte[] compressed;
+		byte[] data = archive.getData(); // is compressed, includes length and type
+		if (data != null)
+		{
+			compressed = Arrays.copyOf(data, data.length - 2); // compressed size includes revision..
+		}
+		else
+		{
+			compressed = compress(archive.getCompression(), archive.saveContents());
+		}
+
+		Response response = new Response(i, archive);
+		response.modCount = modCount;
+		response.crc = archive.getCrc();
+		response.revision = archive.getRevision();
+		response.buffer = encode(index, archiveId, compressed);
+		return response;
+	}
+
+	private Response buildIndexes()
+	{
+		// index 255 data, for each index:
+		// 4 byte crc
+		// 4 byte revision
+		List<Index> indexes = store.getIndexes();
+		int[] versions = new int[indexes.size() * 2];
+
+		OutputStream stream = new OutputStream(indexes.size() * 8);
+		for (int i = 0; i < indexes.size(); ++i)
+		{
+			Index index = indexes.get(i);
+			versions[i * 2] = index.getCrc();
+			versions[i * 2 + 1] = index.getRevision();
+
+			stream.writeInt(index.getCrc());
+			stream.writeInt(index.getRevision());
+		}
+
+		Response response = new Response(null, null);
+		response.versions = versions;
+		response.buffer = encode(255, 255, compress(CompressionType.NONE, stream.flip()));
+		return response;
+	}
+
+	private Response buildIndex(int indexId)
+	{
+		Index index = store.findIndex(indexId);
+		if (index == null)
+		{
+			return null;
+		}
+
+		byte[] indexData = index.writeIndexData();
+
+		Response response = new Response(index, null);
+		response.crc = index.getCrc();
+		response.revision = index.getRevision();
+		response.buffer = encode(255, indexId, compress(CompressionType.NONE, indexData));
+		return response;
+	}
+
+	private static byte[] compress(int compression, byte[] data)
+	{
+		try
+		{
+			return DataFile.compress(data, compression, -1, null);
+		}
+		catch (IOException ex)
+		{
+			throw new RuntimeException(ex);
+		}
+	}
+
+	/**
+	 * Add the archive header and chunk markers to a compressed archive
+	 *
+	 * @param index
+	 * @param archive
+	 * @param file compressed archive
+	 * @return
+	 */
+	private ByteBuf encode(int index, int archive, byte[] file)
+	{
+		// archive file header
+		// 1 byte index
+		// 2 byte archive
+		byte[] packed = new byte[3 + file.length];
+		packed[0] = (byte) index;
+		packed[1] = (byte) (archive >> 8);
+		packed[2] = (byte) archive;
+		System.arraycopy(file, 0, packed, 3, file.length);
+
+		Chunker chunker = new Chunker(packed);
+		ByteBuf buffer = allocator.directBuffer(chunker.getChunkedLength());
+		chunker.chunkData(buffer);
+		return buffer;
+	}
+
+	private class Response
+	{
+		private final Index index; // index the response was built from, if any
+		private final Archive archive; // archive the response was built from, if any
+		private int modCount;
+		private int crc;
+		private int revision;
+		private int[] versions; // crc and revision of each index, for the index 255 response
+		private ByteBuf buffer;
+
+		Response(Index index, Archive archive)
+		{
+			this.index = index;
+			this.archive = archive;
+		}
+
+		boolean isValid()
+		{
+			if (archive != null)
+			{
+				return store.findIndex(index.getId()) == index
+					&& index.getArchive(archive.getArchiveId()) == archive
+					&& archive.getModCount() == modCount
+					&& archive.getCrc() == crc && archive.getRevision() == revision;
+			}
+
+			if (index != null)
+			{
+				return store.findIndex(index.getId()) == index
+					&& index.getCrc() == crc && index.getRevision() == revision;
+			}
+
+			List<Index> indexes = store.getIndexes();
+			if (indexes.size() * 2 != versions.length)
+			{
+				return false;
+			}
+
+			for (int i = 0; i < indexes.size(); ++i)
+			{
+				Index index = indexes.get(i);
+				if (index.getCrc() != versions[i * 2] || index.getRevision() != versions[i * 2 + 1])
+				{
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.util.zip.CRC32;
+import org.bouncycastle.crypto.digests.WhirlpoolDigest;
+
+/**
+ * The crc and whirlpool of a block of data, computed in one pass over it.
+ * Each thread has its own digests, so hashing never contends on a lock.
+ */
+public class Hasher
+{
+	// small enough for a chunk to still be in the cpu cache for the second digest
+	private static final int CHUNK_SIZE = 4096;
+
+	private static final ThreadLocal<Digests> DIGESTS = ThreadLocal.withInitial(Digests::new);
+
+	private final int crc;
+	private final byte[] whirlpool;
+
+	private Hasher(int crc, byte[] whirlpool)
+	{
+		this.crc = crc;
+		this.whirlpool = whirlpool;
+	}
+
+	/**
+	 * Hash a block of data
+	 *
+	 * @param data
+	 * @param offset
+	 * @param length
+	 * @return
+	 */
+	public static Hasher hash(byte[] data, int offset, int length)
+	{
+		Digests digests = DIGESTS.get();
+		CRC32 crc32 = digests.crc32;
+		WhirlpoolDigest whirlpoolDigest = digests.whirlpool;
+
+		crc32.reset();
+
+		int end = offset + length;
+		for (int pos = offset; pos < end; pos += CHUNK_SIZE)
+		{
+			int len = Math.min(CHUNK_SIZE, end - pos);
+			crc32.update(data, pos, len);
+			whirlpoolDigest.update(data, pos, len);
+		}
+
+		byte[] whirlpool = new byte[whirlpoolDigest.getDigestSize()];
+		whirlpoolDigest.doFinal(whirlpool, 0);
+		return new Hasher((int) crc32.getValue(), whirlpool);
+	}
+
+	/**
+	 * Compute only the whirlpool of a block of data
+	 *
+	 * @param data
+	 * @param offset
+	 * @param length
+	 * @return
+	 */
+	public static byte[] whirlpool(byte[] data, int offset, int length)
+	{
+		WhirlpoolDigest digest = DIGESTS.get().whirlpool;
+		digest.update(data, offset, length);
+
+		byte[] hash = new byte[digest.getDigestSize()];
+		digest.doFinal(hash, 0);
+		return hash;
+	}
+
+	public int getCrc()
+	{
+		return crc;
+	}
+
+	public byte[] getWhirlpool()
+	{
+		return whirlpool.clone();
+	}
+
+	private static class Digests
+	{
+		private final CRC32 crc32 = new CRC32();
+		private final WhirlpoolDigest whirlpool = new WhirlpoolDigest();
+	}
+}
@@ -24,32 +24,10 @@
  */
 package net.runelite.cache.util;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.security.Security;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
-
 public class Whirlpool
 {
-	private static MessageDigest messageDigest;
-
-	static
-	{
-		Security.addProvider(new BouncyCastleProvider());
-
-		try
-		{
-			messageDigest = MessageDigest.getInstance("Whirlpool");
-		}
-		catch (NoSuchAlgorithmException ex)
-		{
-			throw new RuntimeException(ex);
-		}
-	}
-
-	public static synchronized byte[] getHash(byte[] data, int len)
+	public static byte[] getHash(byte[] data, int len)
 	{
-		messageDigest.update(data, 0, len);
-		return messageDigest.digest();
+		return Hasher.whirlpool(data, 0, len);
 	}
 }
@@ -26,77 +26,168 @@
 package net.runelite.cache.util;
 
 import java.nio.ByteBuffer;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.security.Security;
-import javax.crypto.BadPaddingException;
-import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
-import javax.crypto.spec.SecretKeySpec;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
-import org.bouncycastle.util.Arrays;
+import java.util.Arrays;
 
+/**
+ * XTEA in ECB mode. Data is processed in place, 8 byte blocks at a time,
+ * with any trailing bytes which do not fill a block left unencrypted.
+ */
 public class Xtea
 {
-	static
-	{
-		Security.addProvider(new BouncyCastleProvider());
-	}
-	
-	private final Cipher cipher;
+	private static final int GOLDEN_RATIO = 0x9E3779B9;
+	private static final int ROUNDS = 32;
+
 	private final int[] keys;
 
-	public Xtea(int[] keys) throws NoSuchAlgorithmException, NoSuchPaddingException
+	public Xtea(int[] keys)
 	{
-		this.cipher = Cipher.getInstance("XTEA/ECB/NoPadding");
 		this.keys = keys;
 	}
 
-	private static byte[] packKey(int[] key)
+	public byte[] encrypt(byte[] data, int len)
 	{
-		ByteBuffer buffer = ByteBuffer.allocate(4 * key.length);
-		for (int i : key)
-			buffer.putInt(i);
-		return buffer.array();
+		byte[] out = Arrays.copyOf(data, len);
+		encrypt(out, 0, len);
+		return out;
 	}
 
-	public byte[] encrypt(byte[] data, int len) throws InvalidKeyException, IllegalBlockSizeException, BadPaddingException
+	public byte[] decrypt(byte[] data, int len)
 	{
-		cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(packKey(keys), cipher.getAlgorithm()));
-		byte[] out = cipher.update(data, 0, len - (len % cipher.getBlockSize()));
-		cipher.doFinal();
+		byte[] out = Arrays.copyOf(data, len);
+		decrypt(out, 0, len);
+		return out;
+	}
 
-		// add remaining data, which is not encrypted
-		if (out.length != len)
+	public void encrypt(byte[] data, int offset, int length)
+	{
+		int end = offset + (length & ~7);
+		for (int i = offset; i < end; i += 8)
 		{
-			assert len > out.length;
-			
-			byte[] padded = Arrays.copyOf(out, len);
-			System.arraycopy(data, out.length, padded, out.length, len - out.length);
-
-			out = padded;
+			int v0 = getInt(data, i);
+			int v1 = getInt(data, i + 4);
+			int sum = 0;
+			for (int j = 0; j < ROUNDS; ++j)
+			{
+				v0 += (((v1 << 4) ^ (v1 >>> 5)) + v1) ^ (sum + keys[sum & 3]);
+				sum += GOLDEN_RATIO;
+				v1 += (((v0 << 4) ^ (v0 >>> 5)) + v0) ^ (sum + keys[(sum >>> 11) & 3]);
+			}
+			putInt(data, i, v0);
+			putInt(data, i + 4, v1);
 		}
+	}
 
-		return out;
+	public void decrypt(byte[] data, int offset, int length)
+	{
+		int end = offset + (length & ~7);
+		for (int i = offset; i < end; i += 8)
+		{
+			int v0 = getInt(data, i);
+			int v1 = getInt(data, i + 4);
+			int sum = GOLDEN_RATIO * ROUNDS;
+			for (int j = 0; j < ROUNDS; ++j)
+			{
+				v1 -= (((v0 << 4) ^ (v0 >>> 5)) + v0) ^ (sum + keys[(sum >>> 11) & 3]);
+				sum -= GOLDEN_RATIO;
+				v0 -= (((v1 << 4) ^ (v1 >>> 5)) + v1) ^ (sum + keys[sum & 3]);
+			}
+			putInt(data, i, v0);
+			putInt(data, i + 4, v1);
+		}
 	}
 
-	public byte[] decrypt(byte[] data, int len) throws InvalidKeyException, IllegalBlockSizeException, BadPaddingException
+	/**
+	 * Encrypt the remaining bytes of the buffer in place. The position of
+	 * the buffer is not changed.
+	 *
+	 * @param buffer
+	 */
+	public void encrypt(ByteBuffer buffer)
 	{
-		cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(packKey(keys), cipher.getAlgorithm()));
-		byte[] out = cipher.update(data, 0, len - (len % cipher.getBlockSize()));
-		cipher.doFinal();
+		if (buffer.hasArray())
+		{
+			encrypt(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+			return;
+		}
 
-		if (out.length != len)
+		int end = buffer.position() + (buffer.remaining() & ~7);
+		for (int i = buffer.position(); i < end; i += 8)
 		{
-			assert len > out.length;
+			int v0 = getInt(buffer, i);
+			int v1 = getInt(buffer, i + 4);
+			int sum = 0;
+			for (int j = 0; j < ROUNDS; ++j)
+			{
+				v0 += (((v1 << 4) ^ (v1 >>> 5)) + v1) ^ (sum + keys[sum & 3]);
+				sum += GOLDEN_RATIO;
+				v1 += (((v0 << 4) ^ (v0 >>> 5)) + v0) ^ (sum + keys[(sum >>> 11) & 3]);
+			}
+			putInt(buffer, i, v0);
+			putInt(buffer, i + 4, v1);
+		}
+	}
 
-			byte[] padded = Arrays.copyOf(out, len);
-			System.arraycopy(data, out.length, padded, out.length, len - out.length);
+	/**
+	 * Decrypt the remaining bytes of the buffer in place. The position of
+	 * the buffer is not changed.
+	 *
+	 * @param buffer
+	 */
+	public void decrypt(ByteBuffer buffer)
+	{
+		if (buffer.hasArray())
+		{
+			decrypt(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+			return;
+		}
 
-			out = padded;
+		int end = buffer.position() + (buffer.remaining() & ~7);
+		for (int i = buffer.position(); i < end; i += 8)
+		{
+			int v0 = getInt(buffer, i);
+			int v1 = getInt(buffer, i + 4);
+			int sum = GOLDEN_RATIO * ROUNDS;
+			for (int j = 0; j < ROUNDS; ++j)
+			{
+				v1 -= (((v0 << 4) ^ (v0 >>> 5)) + v0) ^ (sum + keys[(sum >>> 11) & 3]);
+				sum -= GOLDEN_RATIO;
+				v0 -= (((v1 << 4) ^ (v1 >>> 5)) + v1) ^ (sum + keys[sum & 3]);
+			}
+			putInt(buffer, i, v0);
+			putInt(buffer, i + 4, v1);
 		}
+	}
 
-		return out;
+	private static int getInt(byte[] data, int offset)
+	{
+		return (data[offset] & 0xFF) << 24
+			| (data[offset + 1] & 0xFF) << 16
+			| (data[offset + 2] & 0xFF) << 8
+			| (data[offset + 3] & 0xFF);
+	}
+
+	private static void putInt(byte[] data, int offset, int value)
+	{
+		data[offset] = (byte) (value >>> 24);
+		data[offset + 1] = (byte) (value >>> 16);
+		data[offset + 2] = (byte) (value >>> 8);
+		data[offset + 3] = (byte) value;
+	}
+
+	// blocks are big endian regardless of the byte order of the buffer
+	private static int getInt(ByteBuffer buffer, int offset)
+	{
+		return (buffer.get(offset) & 0xFF) << 24
+			| (buffer.get(offset + 1) & 0xFF) << 16
+			| (buffer.get(offset + 2) & 0xFF) << 8
+			| (buffer.get(offset + 3) & 0xFF);
+	}
+
+	private static void putInt(ByteBuffer buffer, int offset, int value)
+	{
+		buffer.put(offset, (byte) (value >>> 24));
+		buffer.put(offset + 1, (byte) (value >>> 16));
+		buffer.put(offset + 2, (byte) (value >>> 8));
+		buffer.put(offset + 3, (byte) value);
 	}
 }
@@ -170,4 +170,48 @@ public class DataFileTest
 			Assert.assertEquals(42, res2.revision);
 		}
 	}
+
+	@Test
+	public void testMapped() throws IOException
+	{
+		byte[] b = new byte[2048];
+		for (int i = 0; i < b.length; ++i)
+		{
+			b[i] = (byte) i;
+		}
+
+		File file = folder.newFile();
+
+		try (Store store = new Store(folder.getRoot()))
+		{
+			DataFile df = new DataFile(store, file);
+
+			byte[] compressedData = DataFile.compress(b, CompressionType.NONE, 0, null);
+			DataFileWriteResult res = df.write(42, 3, compressedData, 0);
+
+			df.setMapped(true);
+			Assert.assertTrue(df.isMapped());
+
+			compressedData = df.read(42, 3, res.sector, res.compressedLength);
+			Assert.assertArrayEquals(b, DataFile.decompress(compressedData, null).data);
+
+			// data appended after mapping should cause a remap
+			compressedData = DataFile.compress("test".getBytes(), CompressionType.GZ, 0, null);
+			DataFileWriteResult res2 = df.write(42, 0x1FFFF, compressedData, 0);
+
+			compressedData = df.read(42, 0x1FFFF, res2.sector, res2.compressedLength);
+			Assert.assertEquals("test", new String(DataFile.decompress(compressedData, null).data));
+
+			// clearing remaps the now empty file
+			df.clear();
+			Assert.assertTrue(df.isMapped());
+			Assert.assertNull(df.read(42, 3, res.sector, res.compressedLength));
+
+			res = df.write(42, 3, DataFile.compress(b, CompressionType.NONE, 0, null), 0);
+			compressedData = df.read(42, 3, res.sector, res.compressedLength);
+			Assert.assertArrayEquals(b, DataFile.decompress(compressedData, null).data);
+
+			df.close();
+		}
+	}
 }
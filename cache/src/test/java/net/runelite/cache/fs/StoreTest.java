@@ -26,7 +26,11 @@ package net.runelite.cache.fs;
 
 import java.io.IOException;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
 import net.runelite.cache.StoreLocation;
+import net.runelite.cache.util.Djb2;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -157,4 +161,446 @@ public class StoreTest
 			}
 		}
 	}
+
+	@Test
+	public void testParallelLoad() throws IOException
+	{
+		Random random = new Random(44L);
+		java.io.File root = folder.newFolder();
+
+		try (Store store = new Store(root))
+		{
+			for (int i = 0; i < 4; ++i)
+			{
+				Index index = store.addIndex(i);
+
+				for (int j = 0; j < 16; ++j)
+				{
+					Archive archive = index.addArchive(j);
+					archive.setNameHash(random.nextInt());
+
+					for (int k = 0; k < 8; ++k)
+					{
+						File file = archive.addFile(k);
+						file.setNameHash(random.nextInt());
+						byte[] data = new byte[random.nextInt(1024)];
+						random.nextBytes(data);
+						file.setContents(data);
+					}
+				}
+			}
+
+			store.save();
+
+			ExecutorService executor = Executors.newFixedThreadPool(4);
+			try (Store store2 = new Store(root))
+			{
+				store2.load(executor);
+
+				Assert.assertEquals(store, store2);
+			}
+			finally
+			{
+				executor.shutdown();
+			}
+		}
+	}
+
+	@Test
+	public void testLazyLoad() throws IOException
+	{
+		Random random = new Random(45L);
+		java.io.File root = folder.newFolder();
+
+		try (Store store = new Store(root))
+		{
+			Index index = store.addIndex(0);
+
+			for (int i = 0; i < 4; ++i)
+			{
+				Archive archive = index.addArchive(i);
+
+				for (int j = 0; j < 4; ++j)
+				{
+					File file = archive.addFile(j);
+					byte[] data = new byte[1024];
+					random.nextBytes(data);
+					file.setContents(data);
+				}
+			}
+
+			store.save();
+
+			try (Store store2 = new Store(root))
+			{
+				store2.setLazy(true);
+				store2.setLazyCacheSize(4096);
+				store2.load();
+
+				Index index2 = store2.findIndex(0);
+				Archive archive0 = index2.getArchive(0);
+				Archive archive1 = index2.getArchive(1);
+				Assert.assertFalse(archive0.isLoaded());
+				Assert.assertFalse(archive1.isLoaded());
+
+				Assert.assertArrayEquals(index.getArchive(0).getFiles().get(0).getContents(), archive0.getFiles().get(0).getContents());
+				Assert.assertTrue(archive0.isLoaded());
+				Assert.assertFalse(archive1.isLoaded());
+
+				// loading a second archive exceeds the cache size, unloading the first
+				archive1.getFiles().get(0).getContents();
+				Assert.assertTrue(archive1.isLoaded());
+				Assert.assertFalse(archive0.isLoaded());
+
+				Assert.assertEquals(store, store2);
+			}
+		}
+	}
+
+	@Test
+	public void testLazyChanges() throws IOException
+	{
+		Random random = new Random(48L);
+		java.io.File root = folder.newFolder();
+
+		try (Store store = new Store(root))
+		{
+			Index index = store.addIndex(0);
+
+			for (int i = 0; i < 4; ++i)
+			{
+				Archive archive = index.addArchive(i);
+
+				for (int j = 0; j < 4; ++j)
+				{
+					File file = archive.addFile(j);
+					byte[] data = new byte[1024];
+					random.nextBytes(data);
+					file.setContents(data);
+				}
+			}
+
+			store.save();
+
+			byte[] data = new byte[1024];
+			random.nextBytes(data);
+
+			try (Store store2 = new Store(root))
+			{
+				store2.setLazy(true);
+				store2.setLazyCacheSize(4096);
+				store2.load();
+
+				Index index2 = store2.findIndex(0);
+				ArchiveCache cache = store2.getArchiveCache();
+
+				// changes to unloaded archives are made to their contents
+				Archive archive0 = index2.getArchive(0);
+				archive0.setRevision(42);
+				Archive archive1 = index2.getArchive(1);
+				archive1.getFiles().get(2).setContents(data);
+				Assert.assertTrue(archive0.isLoaded());
+				Assert.assertTrue(archive1.isLoaded());
+
+				// both are dirty, so neither could be unloaded or is tracked anymore
+				Assert.assertEquals(1, cache.getCount());
+
+				// loading an archive again doesn't track it twice
+				Archive archive2 = index2.getArchive(2);
+				archive2.decompressAndLoad(null);
+				archive2.decompressAndLoad(null);
+				Assert.assertEquals(1, cache.getCount());
+				Assert.assertEquals(4096, cache.getSize());
+
+				store2.saveChanges();
+				Assert.assertEquals(1, cache.getCount());
+
+				// saved archives are tracked again, and can be unloaded
+				index2.getArchive(3).getFiles().get(0).getContents();
+				Assert.assertFalse(archive0.isLoaded());
+				Assert.assertFalse(archive1.isLoaded());
+			}
+
+			try (Store store2 = new Store(root))
+			{
+				store2.load();
+
+				Index index2 = store2.findIndex(0);
+				Assert.assertEquals(42, index2.getArchive(0).getRevision());
+				Assert.assertArrayEquals(data, index2.getArchive(1).getFiles().get(2).getContents());
+				Assert.assertArrayEquals(index.getArchive(1).getFiles().get(1).getContents(), index2.getArchive(1).getFiles().get(1).getContents());
+				Assert.assertArrayEquals(index.getArchive(0).getFiles().get(3).getContents(), index2.getArchive(0).getFiles().get(3).getContents());
+			}
+		}
+	}
+
+	@Test
+	public void testLazySave() throws IOException
+	{
+		Random random = new Random(49L);
+		java.io.File root = folder.newFolder();
+
+		try (Store store = new Store(root))
+		{
+			Index index = store.addIndex(0);
+
+			for (int i = 0; i < 4; ++i)
+			{
+				Archive archive = index.addArchive(i);
+				archive.setRevision(i + 1);
+
+				for (int j = 0; j < 2; ++j)
+				{
+					File file = archive.addFile(j);
+					byte[] data = new byte[1024];
+					random.nextBytes(data);
+					file.setContents(data);
+				}
+			}
+
+			store.save();
+
+			// fully save a lazily loaded store without touching its archives
+			try (Store store2 = new Store(root))
+			{
+				store2.setLazy(true);
+				store2.load();
+				store2.save();
+
+				// contents of the detached archives are still readable
+				Assert.assertArrayEquals(index.getArchive(2).getFiles().get(1).getContents(),
+					store2.findIndex(0).getArchive(2).getFiles().get(1).getContents());
+			}
+
+			try (Store store2 = new Store(root))
+			{
+				store2.load();
+
+				Index index2 = store2.findIndex(0);
+				Assert.assertEquals(index.getCrc(), index2.getCrc());
+
+				for (Archive archive : index.getArchives())
+				{
+					Archive archive2 = index2.getArchive(archive.getArchiveId());
+					Assert.assertEquals(archive.getCrc(), archive2.getCrc());
+					Assert.assertEquals(archive.getRevision(), archive2.getRevision());
+
+					for (int j = 0; j < 2; ++j)
+					{
+						Assert.assertArrayEquals(archive.getFiles().get(j).getContents(), archive2.getFiles().get(j).getContents());
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testIndexCrc() throws IOException
+	{
+		try (Store store = new Store(folder.newFolder()))
+		{
+			Index index = store.addIndex(0);
+			index.setRevision(7);
+
+			Archive archive = index.addArchive(0);
+			archive.setRevision(3);
+			archive.addFile(0).setContents(new byte[100]);
+
+			store.save();
+
+			// the reference table is stored without a revision, so its crc covers all of its data
+			IndexEntry entry = store.getIndex255().read(0);
+			byte[] data = store.getData().read(255, 0, entry.getSector(), entry.getLength());
+
+			CRC32 crc32 = new CRC32();
+			crc32.update(data, 0, data.length);
+			Assert.assertEquals((int) crc32.getValue(), index.getCrc());
+		}
+	}
+
+	@Test
+	public void testFindArchive() throws IOException
+	{
+		try (Store store = new Store(folder.getRoot()))
+		{
+			Index index = store.addIndex(0);
+			Archive archive = index.addArchive(0);
+			Archive archive2 = index.addArchive(1);
+			archive.setNameHash(Djb2.hash("m50_50"));
+
+			Assert.assertSame(index, store.findIndex(0));
+			Assert.assertSame(archive2, index.getArchive(1));
+			Assert.assertSame(archive, index.findArchiveByName("m50_50"));
+			Assert.assertNull(index.findArchiveByName("l50_50"));
+
+			archive2.setNameHash(Djb2.hash("l50_50"));
+			Assert.assertSame(archive2, index.findArchiveByName("l50_50"));
+		}
+	}
+
+	@Test
+	public void testSaveChanges() throws IOException
+	{
+		Random random = new Random(46L);
+		java.io.File root = folder.newFolder();
+		java.io.File dat = new java.io.File(root, "main_file_cache.dat2");
+
+		try (Store store = new Store(root))
+		{
+			Index index = store.addIndex(0);
+
+			for (int i = 0; i < 4; ++i)
+			{
+				Archive archive = index.addArchive(i);
+
+				for (int j = 0; j < 4; ++j)
+				{
+					File file = archive.addFile(j);
+					byte[] data = new byte[1024];
+					random.nextBytes(data);
+					file.setContents(data);
+				}
+			}
+
+			store.save();
+			Assert.assertFalse(index.isDirty());
+		}
+
+		try (Store store = new Store(root))
+		{
+			store.load();
+
+			Index index = store.findIndex(0);
+			Assert.assertFalse(index.isDirty());
+
+			long length = dat.length();
+			store.saveChanges();
+			Assert.assertEquals(length, dat.length());
+
+			byte[] data = new byte[1024];
+			random.nextBytes(data);
+			Archive archive = index.getArchive(2);
+			archive.getFiles().get(1).setContents(data);
+			Assert.assertTrue(archive.isDirty());
+			Assert.assertFalse(index.getArchive(1).isDirty());
+			Assert.assertTrue(index.isDirty());
+
+			store.saveChanges();
+			Assert.assertFalse(index.isDirty());
+
+			// only the changed archive and the reference table are appended
+			long growth = dat.length() - length;
+			Assert.assertTrue(growth > 0 && growth < length / 2);
+
+			try (Store store2 = new Store(root))
+			{
+				store2.load();
+				Assert.assertEquals(store, store2);
+			}
+		}
+	}
+
+	@Test
+	public void testRebuildCrcAndSave() throws IOException
+	{
+		Random random = new Random(47L);
+		java.io.File root = folder.newFolder();
+
+		try (Store store = new Store(root))
+		{
+			for (int i = 0; i < 3; ++i)
+			{
+				Index index = store.addIndex(i);
+
+				for (int j = 0; j < 32; ++j)
+				{
+					Archive archive = index.addArchive(j);
+					archive.setCompression(j % 3);
+
+					File file = archive.addFile(0);
+					byte[] data = new byte[random.nextInt(4096)];
+					random.nextBytes(data);
+					file.setContents(data);
+				}
+			}
+
+			store.rebuildCrc();
+
+			Archive archive = store.findIndex(1).getArchive(5);
+			int crc = archive.getCrc();
+
+			// changing an archive after its crc is built must not save the old data
+			byte[] data = new byte[100];
+			random.nextBytes(data);
+			archive.getFiles().get(0).setContents(data);
+
+			store.save();
+			Assert.assertNotEquals(crc, archive.getCrc());
+
+			try (Store store2 = new Store(root))
+			{
+				store2.load();
+
+				Assert.assertEquals(store, store2);
+				Assert.assertEquals(archive.getCrc(), store2.findIndex(1).getArchive(5).getCrc());
+				Assert.assertEquals(store.findIndex(2).getCrc(), store2.findIndex(2).getCrc());
+			}
+		}
+	}
+
+	@Test
+	public void testParallelTree() throws IOException
+	{
+		Random random = new Random(48L);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		try (Store store = new Store(folder.newFolder()))
+		{
+			for (int i = 0; i < 2; ++i)
+			{
+				Index index = store.addIndex(i);
+				index.setRevision(i + 1);
+
+				for (int j = 0; j < 16; ++j)
+				{
+					Archive archive = index.addArchive(j);
+					archive.setNameHash(random.nextInt(Integer.MAX_VALUE));
+					archive.setRevision(j);
+
+					// a mix of single and multiple file archives
+					for (int k = 0; k < 1 + j % 3; ++k)
+					{
+						File file = archive.addFile(k);
+						file.setNameHash(random.nextInt(Integer.MAX_VALUE));
+						byte[] data = new byte[random.nextInt(1024)];
+						random.nextBytes(data);
+						file.setContents(data);
+					}
+				}
+			}
+
+			java.io.File tree = folder.newFolder();
+			store.saveTree(tree.toPath(), executor);
+
+			try (Store store2 = new Store(folder.newFolder()))
+			{
+				store2.loadTree(tree.toPath(), executor);
+				Assert.assertEquals(store, store2);
+			}
+
+			java.io.File zip = new java.io.File(folder.newFolder(), "tree.zip");
+			store.saveTreeZip(zip, executor);
+			Assert.assertTrue(zip.isFile());
+
+			try (Store store2 = new Store(folder.newFolder()))
+			{
+				store2.loadTreeZip(zip, executor);
+				Assert.assertEquals(store, store2);
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
 }
@@ -25,6 +25,7 @@
 package net.runelite.cache.server;
 
 import java.io.FileNotFoundException;
+import java.util.Random;
 import net.runelite.cache.StoreLocation;
 import net.runelite.cache.downloader.CacheClient;
 import net.runelite.cache.fs.Archive;
@@ -107,6 +108,135 @@ public class CacheServerTest
 		}
 	}
 
+	@Test
+	public void testServerMultipleArchives() throws Exception
+	{
+		Random random = new Random(42L);
+
+		try (Store store = new Store(folder.newFolder());
+			CacheServer server = new CacheServer(store, REVISION))
+		{
+			Index index = store.addIndex(0);
+			for (int i = 0; i < 64; ++i)
+			{
+				Archive archive = index.addArchive(i);
+				File file = archive.addFile(0);
+				byte[] data = new byte[random.nextInt(2048)];
+				random.nextBytes(data);
+				file.setContents(data);
+			}
+
+			store.rebuildCrc();
+
+			server.start();
+
+			try (Store store2 = new Store(folder.newFolder()); CacheClient client = new CacheClient(store2, HOST, REVISION))
+			{
+				client.setWindowSize(8);
+				client.connect();
+				client.handshake().get();
+				client.download();
+
+				Assert.assertEquals(index, store2.findIndex(0));
+			}
+		}
+	}
+
+	@Test
+	public void testServerManyRequests() throws Exception
+	{
+		Random random = new Random(44L);
+
+		try (Store store = new Store(folder.newFolder());
+			CacheServer server = new CacheServer(store, REVISION))
+		{
+			Index index = store.addIndex(0);
+			for (int i = 0; i < 256; ++i)
+			{
+				Archive archive = index.addArchive(i);
+				File file = archive.addFile(0);
+				byte[] data = new byte[random.nextInt(4096)];
+				random.nextBytes(data);
+				file.setContents(data);
+			}
+
+			store.rebuildCrc();
+
+			server.start();
+
+			try (Store store2 = new Store(folder.newFolder()); CacheClient client = new CacheClient(store2, HOST, REVISION))
+			{
+				// more requests in flight than are served in one batch
+				client.setWindowSize(100);
+				client.connect();
+				client.handshake().get();
+				client.download();
+
+				Assert.assertEquals(index, store2.findIndex(0));
+			}
+		}
+	}
+
+	@Test
+	public void testSync() throws Exception
+	{
+		Random random = new Random(43L);
+		java.io.File clientFolder = folder.newFolder();
+
+		try (Store store = new Store(folder.newFolder());
+			CacheServer server = new CacheServer(store, REVISION))
+		{
+			Index index = store.addIndex(0);
+			for (int i = 0; i < 8; ++i)
+			{
+				Archive archive = index.addArchive(i);
+				File file = archive.addFile(0);
+				byte[] data = new byte[random.nextInt(2048)];
+				random.nextBytes(data);
+				file.setContents(data);
+			}
+
+			store.rebuildCrc();
+
+			server.start();
+
+			try (Store store2 = new Store(clientFolder); CacheClient client = new CacheClient(store2, HOST, REVISION))
+			{
+				client.connect();
+				client.handshake().get();
+				client.sync();
+			}
+
+			// change one archive
+			Archive changed = index.getArchive(3);
+			changed.setRevision(1);
+			changed.getFiles().get(0).setContents("test".getBytes());
+			index.setRevision(1);
+			store.rebuildCrc();
+
+			try (Store store2 = new Store(clientFolder); CacheClient client = new CacheClient(store2, HOST, REVISION))
+			{
+				store2.setLazy(true);
+				store2.load();
+
+				client.connect();
+				client.handshake().get();
+				client.sync();
+
+				// unchanged archives are not decompressed
+				Index index2 = store2.findIndex(0);
+				Assert.assertFalse(index2.getArchive(0).isLoaded());
+			}
+
+			try (Store store2 = new Store(clientFolder))
+			{
+				store2.load();
+
+				Assert.assertEquals(index, store2.findIndex(0));
+			}
+		}
+	}
+
 	private void addInitialFilesToStore(Store store) throws FileNotFoundException
 	{
 		Index index = store.addIndex(0);
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import java.io.IOException;
+import net.runelite.cache.StoreLocation;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.File;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ResponseCacheTest
+{
+	@Rule
+	public TemporaryFolder folder = StoreLocation.getTemporaryFolder();
+
+	@Test
+	public void testResponseCache() throws IOException
+	{
+		try (Store store = new Store(folder.newFolder()))
+		{
+			Index index = store.addIndex(0);
+			Archive archive = index.addArchive(0);
+			File file = archive.addFile(0);
+			file.setContents(new byte[2048]);
+			store.rebuildCrc();
+
+			ResponseCache cache = new ResponseCache(store, UnpooledByteBufAllocator.DEFAULT);
+
+			ByteBuf response = cache.get(0, 0);
+			ByteBuf response2 = cache.get(0, 0);
+
+			// header, compression type, length, 2048 bytes, and 4 chunk markers
+			Assert.assertEquals(3 + 5 + 2048 + 4, response.readableBytes());
+			Assert.assertEquals((byte) 0xff, response.getByte(512));
+			Assert.assertEquals(1, cache.getBuilds());
+			Assert.assertEquals(response, response2);
+
+			archive.setRevision(1);
+
+			ByteBuf response3 = cache.get(0, 0);
+			Assert.assertEquals(2, cache.getBuilds());
+
+			Assert.assertNull(cache.get(0, 1));
+
+			// changed and saved archives are rebuilt without waiting for the crc to be
+			file.setContents(new byte[1024]);
+
+			ByteBuf response4 = cache.get(0, 0);
+			Assert.assertEquals(3, cache.getBuilds());
+			Assert.assertEquals(3 + 5 + 1024 + 2, response4.readableBytes());
+			response4.release();
+
+			store.save();
+
+			response4 = cache.get(0, 0);
+			Assert.assertEquals(4, cache.getBuilds());
+
+			response.release();
+			response2.release();
+			response3.release();
+			response4.release();
+			cache.invalidate();
+
+			Assert.assertEquals(0, response4.refCnt());
+		}
+	}
+}
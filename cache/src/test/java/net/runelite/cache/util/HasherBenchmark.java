@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Security;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link Hasher} against a crc pass followed by a whirlpool
+ * computed with one shared, synchronized digest, as archives used to be
+ * hashed. Run with increasing thread counts to compare how they scale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HasherBenchmark
+{
+	private static MessageDigest sharedDigest;
+
+	private byte[] data;
+
+	@Setup
+	public void setup() throws NoSuchAlgorithmException
+	{
+		Security.addProvider(new BouncyCastleProvider());
+		sharedDigest = MessageDigest.getInstance("Whirlpool");
+
+		data = new byte[16384];
+		new Random(42L).nextBytes(data);
+	}
+
+	private static synchronized byte[] sharedWhirlpool(byte[] data, int len)
+	{
+		sharedDigest.update(data, 0, len);
+		return sharedDigest.digest();
+	}
+
+	@Benchmark
+	public void synchronizedDigest(Blackhole blackhole)
+	{
+		CRC32 crc32 = new CRC32();
+		crc32.update(data, 0, data.length);
+		blackhole.consume(crc32.getValue());
+		blackhole.consume(sharedWhirlpool(data, data.length));
+	}
+
+	@Benchmark
+	public void hasher(Blackhole blackhole)
+	{
+		Hasher hasher = Hasher.hash(data, 0, data.length);
+		blackhole.consume(hasher.getCrc());
+		blackhole.consume(hasher.getWhirlpool());
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		for (int threads : new int[] { 1, 2, 4, 8 })
+		{
+			new Runner(new OptionsBuilder()
+				.include(HasherBenchmark.class.getSimpleName())
+				.threads(threads)
+				.build()).run();
+		}
+	}
+}
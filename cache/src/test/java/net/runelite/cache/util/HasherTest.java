@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import com.google.common.io.BaseEncoding;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HasherTest
+{
+	@Test
+	public void testHash()
+	{
+		// published crc32 and whirlpool test vectors
+		byte[] data = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.US_ASCII);
+		Hasher hasher = Hasher.hash(data, 0, data.length);
+		Assert.assertEquals(0x414FA339, hasher.getCrc());
+		Assert.assertArrayEquals(parse("B97DE512E91E3828B40D2B0FDCE9CEB3C4A71F9BEA8D88E75C4FA854DF36725F"
+			+ "D2B52EB6544EDCACD6F8BEDDFEA403CB55AE31F03AD62A5EF54E42EE82C3FB35"), hasher.getWhirlpool());
+
+		data = "x123456789x".getBytes(StandardCharsets.US_ASCII);
+		Assert.assertEquals(0xCBF43926, Hasher.hash(data, 1, 9).getCrc());
+
+		hasher = Hasher.hash(new byte[0], 0, 0);
+		Assert.assertEquals(0, hasher.getCrc());
+		Assert.assertArrayEquals(parse("19FA61D75522A4669B44E39C1D2E1726C530232130D407F89AFEE0964997F7A7"
+			+ "3E83BE698B288FEBCF88E3E03C4F0757EA8964E59B63D93708B138CC42A66EB3"), hasher.getWhirlpool());
+	}
+
+	@Test
+	public void testHashLarge()
+	{
+		// spans many chunks
+		byte[] data = new byte[1000000];
+		Arrays.fill(data, (byte) 'a');
+
+		Hasher hasher = Hasher.hash(data, 0, data.length);
+
+		CRC32 crc32 = new CRC32();
+		crc32.update(data, 0, data.length);
+		Assert.assertEquals((int) crc32.getValue(), hasher.getCrc());
+		Assert.assertArrayEquals(parse("0C99005BEB57EFF50A7CF005560DDF5D29057FD86B20BFD62DECA0F1CCEA4AF5"
+			+ "1FC15490EDDC47AF32BB2B66C34FF9AD8C6008AD677F77126953B226E4ED8B01"), hasher.getWhirlpool());
+	}
+
+	@Test
+	public void testResultKept()
+	{
+		byte[] data = "abc".getBytes(StandardCharsets.US_ASCII);
+		Hasher hasher = Hasher.hash(data, 0, data.length);
+		Hasher.hash(new byte[100], 0, 100);
+
+		// hashing something else on this thread leaves the first result alone
+		Assert.assertEquals(0x352441C2, hasher.getCrc());
+		Assert.assertArrayEquals(parse("4E2448A4C6F486BB16B6562C73B4020BF3043E3A731BCE721AE1B303D97E6D4C"
+			+ "7181EEBDB6C57E277D0E34957114CBD6C797FC9D95D8B582D225292076D4EEF5"), hasher.getWhirlpool());
+	}
+
+	@Test
+	public void testConcurrentHash() throws Exception
+	{
+		Random random = new Random(43L);
+		List<byte[]> datas = new ArrayList<>();
+		for (int i = 0; i < 64; ++i)
+		{
+			byte[] data = new byte[4096 + random.nextInt(65536)];
+			random.nextBytes(data);
+			datas.add(data);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			List<Future<Hasher>> futures = new ArrayList<>();
+			for (byte[] data : datas)
+			{
+				futures.add(executor.submit(() -> Hasher.hash(data, 0, data.length)));
+			}
+
+			for (int i = 0; i < datas.size(); ++i)
+			{
+				byte[] data = datas.get(i);
+				Hasher hasher = futures.get(i).get();
+
+				CRC32 crc32 = new CRC32();
+				crc32.update(data, 0, data.length);
+				Assert.assertEquals((int) crc32.getValue(), hasher.getCrc());
+
+				Hasher expected = Hasher.hash(data, 0, data.length);
+				Assert.assertArrayEquals(expected.getWhirlpool(), hasher.getWhirlpool());
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	private static byte[] parse(String hex)
+	{
+		return BaseEncoding.base16().decode(hex);
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.Security;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link Xtea} against decrypting through a BouncyCastle cipher,
+ * as map archives used to be decrypted
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XteaBenchmark
+{
+	@Param({"64", "4096", "65536"})
+	private int size;
+
+	private final int[] keys = new int[4];
+	private byte[] data;
+
+	@Setup
+	public void setup()
+	{
+		Security.addProvider(new BouncyCastleProvider());
+
+		Random random = new Random(42L);
+		for (int i = 0; i < keys.length; ++i)
+		{
+			keys[i] = random.nextInt();
+		}
+
+		data = new byte[size + 5]; // not a multiple of the block size
+		random.nextBytes(data);
+	}
+
+	@Benchmark
+	public byte[] cipher() throws GeneralSecurityException
+	{
+		Cipher cipher = Cipher.getInstance("XTEA/ECB/NoPadding");
+
+		ByteBuffer key = ByteBuffer.allocate(16);
+		for (int k : keys)
+		{
+			key.putInt(k);
+		}
+
+		cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key.array(), cipher.getAlgorithm()));
+		int len = data.length;
+		byte[] out = cipher.update(data, 0, len - (len % cipher.getBlockSize()));
+		cipher.doFinal();
+
+		byte[] padded = Arrays.copyOf(out, len);
+		System.arraycopy(data, out.length, padded, out.length, len - out.length);
+		return padded;
+	}
+
+	@Benchmark
+	public byte[] inPlace()
+	{
+		// decrypting the same buffer repeatedly doesn't affect the cost
+		Xtea xtea = new Xtea(keys);
+		xtea.decrypt(data, 0, data.length);
+		return data;
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+			.include(XteaBenchmark.class.getSimpleName())
+			.build()).run();
+	}
+}
@@ -24,12 +24,14 @@
  */
 package net.runelite.cache.util;
 
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.Security;
+import java.util.Arrays;
 import java.util.Random;
-import javax.crypto.BadPaddingException;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -38,7 +40,7 @@ public class XteaTest
 	private final Random random = new Random(42L);
 	
 	@Test
-	public void test() throws InvalidKeyException, IllegalBlockSizeException, BadPaddingException, NoSuchAlgorithmException, NoSuchPaddingException
+	public void test()
 	{
 		byte[] data = new byte[1027];
 		random.nextBytes(data);
@@ -53,4 +55,54 @@ public class XteaTest
 
 		Assert.assertArrayEquals(data, decData);
 	}
+
+	@Test
+	public void testInPlace()
+	{
+		byte[] data = new byte[1027];
+		random.nextBytes(data);
+		byte[] original = data.clone();
+
+		Xtea xtea = new Xtea(new int[] { 23, 42, -7, 108 });
+		xtea.encrypt(data, 3, 1020);
+		Assert.assertArrayEquals(Arrays.copyOf(original, 3), Arrays.copyOf(data, 3));
+		Assert.assertFalse(Arrays.equals(original, data));
+
+		// the trailing partial block is not encrypted
+		Assert.assertEquals(original[1020], data[1020]);
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+		buffer.put(data);
+		buffer.position(3).limit(1023);
+		xtea.decrypt(buffer);
+		buffer.limit(data.length);
+		Assert.assertEquals(3, buffer.position());
+
+		buffer.rewind();
+		buffer.get(data);
+		Assert.assertArrayEquals(original, data);
+	}
+
+	@Test
+	public void testCipherCompatibility() throws GeneralSecurityException
+	{
+		Security.addProvider(new BouncyCastleProvider());
+
+		byte[] data = new byte[1024];
+		random.nextBytes(data);
+
+		int[] key = new int[] { random.nextInt(), random.nextInt(), random.nextInt(), random.nextInt() };
+		ByteBuffer packedKey = ByteBuffer.allocate(16);
+		for (int k : key)
+		{
+			packedKey.putInt(k);
+		}
+
+		Cipher cipher = Cipher.getInstance("XTEA/ECB/NoPadding");
+		cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(packedKey.array(), cipher.getAlgorithm()));
+		byte[] expected = cipher.doFinal(data);
+
+		Xtea xtea = new Xtea(key);
+		Assert.assertArrayEquals(expected, xtea.encrypt(data, data.length));
+	}
 }
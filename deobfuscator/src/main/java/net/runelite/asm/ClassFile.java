@@ -25,8 +25,11 @@
 
 package net.runelite.asm;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import net.runelite.asm.attributes.Annotations;
 import net.runelite.asm.attributes.annotation.Annotation;
 import net.runelite.asm.pool.Class;
@@ -54,6 +57,8 @@ public class ClassFile
 	private Fields fields;
 	private Methods methods;
 	private Annotations annotations;
+	private Map<SimpleImmutableEntry<String, Type>, Field> resolvedFields; // memoized findFieldDeep while the group is resolving
+	private Map<SimpleImmutableEntry<String, Signature>, Method> resolvedMethods;
 	
 	public ClassFile(ClassGroup group)
 	{
@@ -168,7 +173,10 @@ public class ClassFile
 	
 	public void setName(String name)
 	{
+		String oldName = this.name != null ? this.name.getName() : null;
 		this.name = new Class(name);
+		if (group != null)
+			group.renamed(this, oldName);
 	}
 	
 	public String getClassName()
@@ -235,28 +243,64 @@ public class ClassFile
 
 	public Field findFieldDeep(String name, Type type)
 	{
+		boolean memoize = group != null && group.isResolving();
+		SimpleImmutableEntry<String, Type> key = null;
+		if (memoize)
+		{
+			if (resolvedFields == null)
+				resolvedFields = new HashMap<>();
+
+			key = new SimpleImmutableEntry<>(name, type);
+			if (resolvedFields.containsKey(key))
+				return resolvedFields.get(key);
+		}
+
 		Field f = fields.findField(name, type);
-		if (f != null)
-			return f;
+		if (f == null)
+		{
+			ClassFile parent = getParent();
+			if (parent != null)
+				f = parent.findFieldDeep(name, type);
+		}
 
-		ClassFile parent = getParent();
-		if (parent != null)
-			return parent.findFieldDeep(name, type);
+		if (memoize)
+			resolvedFields.put(key, f);
 
-		return null;
+		return f;
 	}
 	
 	public Method findMethodDeep(String name, Signature type)
 	{
+		boolean memoize = group != null && group.isResolving();
+		SimpleImmutableEntry<String, Signature> key = null;
+		if (memoize)
+		{
+			if (resolvedMethods == null)
+				resolvedMethods = new HashMap<>();
+
+			key = new SimpleImmutableEntry<>(name, type);
+			if (resolvedMethods.containsKey(key))
+				return resolvedMethods.get(key);
+		}
+
 		Method m = methods.findMethod(name, type);
-		if (m != null)
-			return m;
+		if (m == null)
+		{
+			ClassFile parent = getParent();
+			if (parent != null)
+				m = parent.findMethodDeep(name, type);
+		}
 
-		ClassFile parent = getParent();
-		if (parent != null)
-			return parent.findMethodDeep(name, type);
+		if (memoize)
+			resolvedMethods.put(key, m);
 
-		return null;
+		return m;
+	}
+
+	void clearResolved()
+	{
+		resolvedFields = null;
+		resolvedMethods = null;
 	}
 	
 	public Method findMethodDeepStatic(String name, Signature type)
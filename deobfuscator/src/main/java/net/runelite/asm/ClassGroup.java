@@ -25,13 +25,18 @@
 
 package net.runelite.asm;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import net.runelite.asm.attributes.Code;
 
 public class ClassGroup
 {
 	private final List<ClassFile> classes = new ArrayList<>();
+	private final ListMultimap<String, ClassFile> classesByName = ArrayListMultimap.create(); // classes with the same name, in the order they were named
+	private boolean resolving; // members resolved by ClassFile are memoized
 
 	public ClassGroup()
 	{
@@ -42,25 +47,39 @@ public class ClassGroup
 		assert cf.getGroup() == this || cf.getGroup() == null;
 		cf.setGroup(this);
 		classes.add(cf);
+		classesByName.put(cf.getName(), cf);
 	}
 	
 	public void removeClass(ClassFile cf)
 	{
-		classes.remove(cf);
+		if (classes.remove(cf))
+			classesByName.remove(cf.getName(), cf);
+	}
+
+	void renamed(ClassFile cf, String oldName)
+	{
+		if (cf.getGroup() != this || !classesByName.remove(oldName, cf))
+			return; // not added yet
+
+		// a class already with the new name may itself be pending a rename, and keeps precedence until it is
+		classesByName.put(cf.getName(), cf);
 	}
 	
 	public List<ClassFile> getClasses()
 	{
-		return classes;
+		return Collections.unmodifiableList(classes);
 	}
 
 	public ClassFile findClass(String name)
 	{
 		// XXX handle arrays?
-		for (ClassFile c : classes)
-			if (c.getName().equals(name))
-				return c;
-		return null;
+		List<ClassFile> cfs = classesByName.get(name);
+		return cfs.isEmpty() ? null : cfs.get(0);
+	}
+
+	boolean isResolving()
+	{
+		return resolving;
 	}
 	
 	public void initialize()
@@ -80,16 +99,26 @@ public class ClassGroup
 	
 	public void lookup()
 	{
-		for (ClassFile cf : this.getClasses())
-			for (Method m : cf.getMethods().getMethods())
-			{
-				Code code = m.getCode();
-				
-				if (code == null)
-					continue;
-				
-				code.getInstructions().lookup();
-			}
-		
+		// nothing is modified while looking up, so resolved members can be memoized
+		resolving = true;
+		try
+		{
+			for (ClassFile cf : this.getClasses())
+				for (Method m : cf.getMethods().getMethods())
+				{
+					Code code = m.getCode();
+
+					if (code == null)
+						continue;
+
+					code.getInstructions().lookup();
+				}
+		}
+		finally
+		{
+			resolving = false;
+			for (ClassFile cf : classes)
+				cf.clearResolved();
+		}
 	}
 }
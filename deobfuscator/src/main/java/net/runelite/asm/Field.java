@@ -113,7 +113,9 @@ public class Field
 	
 	public void setName(String name)
 	{
+		String oldName = this.name;
 		this.name = name;
+		fields.renamed(this, oldName);
 	}
 
 	public Type getType()
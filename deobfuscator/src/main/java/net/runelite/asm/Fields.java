@@ -25,7 +25,10 @@
 
 package net.runelite.asm;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import net.runelite.asm.signature.Type;
 import org.objectweb.asm.ClassVisitor;
@@ -35,6 +38,7 @@ public class Fields
 	private final ClassFile classFile;
 
 	private final List<Field> fields = new ArrayList<>();
+	private final ListMultimap<String, Field> fieldsByName = ArrayListMultimap.create(); // in the same order as fields
 	
 	Fields(ClassFile c)
 	{
@@ -53,26 +57,44 @@ public class Fields
 	public void addField(Field field)
 	{
 		fields.add(field);
+		fieldsByName.put(field.getName(), field);
+	}
+
+	public void removeField(Field field)
+	{
+		if (fields.remove(field))
+			fieldsByName.remove(field.getName(), field);
+	}
+
+	void renamed(Field field, String oldName)
+	{
+		if (!fieldsByName.remove(oldName, field))
+			return; // not added yet
+
+		// rebuild the bucket to keep it in the same order as fields
+		String name = field.getName();
+		fieldsByName.removeAll(name);
+		for (Field other : fields)
+			if (other.getName().equals(name))
+				fieldsByName.put(name, other);
 	}
 
 	public List<Field> getFields()
 	{
-		return fields;
+		return Collections.unmodifiableList(fields);
 	}
 
 	public Field findField(String name, Type type)
 	{
-		for (Field f : fields)
-			if (f.getName().equals(name) && f.getType().equals(type))
+		for (Field f : fieldsByName.get(name))
+			if (f.getType().equals(type))
 				return f;
 		return null;
 	}
 	
 	public Field findField(String name)
 	{
-		for (Field f : fields)
-			if (f.getName().equals(name))
-				return f;
-		return null;
+		List<Field> f = fieldsByName.get(name);
+		return f.isEmpty() ? null : f.get(0);
 	}
 }
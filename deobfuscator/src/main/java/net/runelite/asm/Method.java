@@ -146,7 +146,9 @@ public class Method
 
 	public void setName(String name)
 	{
+		String oldName = this.name;
 		this.name = name;
+		methods.renamed(this, oldName);
 	}
 
 	public Signature getDescriptor()
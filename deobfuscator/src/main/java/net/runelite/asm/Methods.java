@@ -25,7 +25,10 @@
 
 package net.runelite.asm;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import net.runelite.asm.signature.Signature;
 
@@ -34,6 +37,7 @@ public class Methods
 	private final ClassFile classFile;
 
 	private final List<Method> methods = new ArrayList<>();
+	private final ListMultimap<String, Method> methodsByName = ArrayListMultimap.create(); // in the same order as methods
 	
 	Methods(ClassFile cf)
 	{
@@ -43,11 +47,26 @@ public class Methods
 	public void addMethod(Method m)
 	{
 		methods.add(m);
+		methodsByName.put(m.getName(), m);
 	}
 	
 	public void removeMethod(Method m)
 	{
-		methods.remove(m);
+		if (methods.remove(m))
+			methodsByName.remove(m.getName(), m);
+	}
+
+	void renamed(Method m, String oldName)
+	{
+		if (!methodsByName.remove(oldName, m))
+			return; // not added yet
+
+		// rebuild the bucket to keep it in the same order as methods
+		String name = m.getName();
+		methodsByName.removeAll(name);
+		for (Method other : methods)
+			if (other.getName().equals(name))
+				methodsByName.put(name, other);
 	}
 
 	public ClassFile getClassFile()
@@ -57,22 +76,20 @@ public class Methods
 	
 	public List<Method> getMethods()
 	{
-		return methods;
+		return Collections.unmodifiableList(methods);
 	}
 
 	public Method findMethod(String name, Signature type)
 	{
-		for (Method m : methods)
-			if (m.getName().equals(name) && m.getDescriptor().equals(type))
+		for (Method m : methodsByName.get(name))
+			if (m.getDescriptor().equals(type))
 				return m;
 		return null;
 	}
 	
 	public Method findMethod(String name)
 	{
-		for (Method m : methods)
-			if (m.getName().equals(name))
-				return m;
-		return null;
+		List<Method> m = methodsByName.get(name);
+		return m.isEmpty() ? null : m.get(0);
 	}
 }
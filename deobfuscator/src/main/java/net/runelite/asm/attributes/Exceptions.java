@@ -27,7 +27,7 @@ package net.runelite.asm.attributes;
 
 import java.util.ArrayList;
 import java.util.List;
-import net.runelite.asm.ClassFile;
+import java.util.Map;
 import net.runelite.asm.pool.Class;
 
 public class Exceptions
@@ -44,16 +44,13 @@ public class Exceptions
 		return classes;
 	}
 	
-	public void renameClass(ClassFile cf, String name)
+	public void renameClasses(Map<String, String> names)
 	{
-		for (Class c : new ArrayList<>(classes))
+		for (int i = 0; i < classes.size(); ++i)
 		{
-			if (c.getName().equals(cf.getName()))
-			{
-				int idx = classes.indexOf(c);
-				classes.remove(idx);
-				classes.add(idx, new Class(name));
-			}
+			String name = names.get(classes.get(i).getName());
+			if (name != null)
+				classes.set(i, new Class(name));
 		}
 	}
 }
@@ -25,7 +25,7 @@
 
 package net.runelite.asm.attributes.code;
 
-import net.runelite.asm.ClassFile;
+import java.util.Map;
 import net.runelite.asm.pool.Class;
 
 public class Exception implements Cloneable
@@ -103,9 +103,10 @@ public class Exception implements Cloneable
 		this.catchType = catchType;
 	}
 	
-	public void renameClass(ClassFile cf, String name)
+	public void renameClasses(Map<String, String> names)
 	{
-		if (catchType != null && cf.getName().equals(catchType.getName()))
+		String name = catchType != null ? names.get(catchType.getName()) : null;
+		if (name != null)
 			catchType = new Class(name);
 	}
 }
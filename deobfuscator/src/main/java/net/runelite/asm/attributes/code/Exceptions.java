@@ -27,7 +27,7 @@ package net.runelite.asm.attributes.code;
 
 import java.util.ArrayList;
 import java.util.List;
-import net.runelite.asm.ClassFile;
+import java.util.Map;
 import net.runelite.asm.attributes.Code;
 
 public class Exceptions
@@ -65,9 +65,9 @@ public class Exceptions
 		return exceptions;
 	}
 	
-	public void renameClass(ClassFile cf, String name)
+	public void renameClasses(Map<String, String> names)
 	{
 		for (Exception e : exceptions)
-			e.renameClass(cf, name);
+			e.renameClasses(names);
 	}
 }
\ No newline at end of file
@@ -25,6 +25,7 @@
 
 package net.runelite.asm.attributes.code;
 
+import java.util.Map;
 import net.runelite.asm.Method;
 import net.runelite.asm.execution.Frame;
 import net.runelite.asm.execution.InstructionContext;
@@ -149,7 +150,11 @@ public abstract class Instruction implements Cloneable
 		return this;
 	}
 
-	public void renameClass(String oldName, String newName)
+	/**
+	 * Rename references to classes which are not regenerated from the pool
+	 * @param names old to new class names
+	 */
+	public void renameClasses(Map<String, String> names)
 	{
 	}
 }
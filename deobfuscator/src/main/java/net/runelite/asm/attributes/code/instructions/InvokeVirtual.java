@@ -27,6 +27,7 @@ package net.runelite.asm.attributes.code.instructions;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import net.runelite.asm.ClassFile;
 import net.runelite.asm.ClassGroup;
 import net.runelite.asm.Field;
@@ -383,12 +384,13 @@ public class InvokeVirtual extends Instruction implements InvokeInstruction
 	}
 
 	@Override
-	public void renameClass(String oldName, String newName)
+	public void renameClasses(Map<String, String> names)
 	{
 		if (myMethods != null)
 			return;
 
-		if (method.getClazz().getName().equals(oldName))
+		String newName = names.get(method.getClazz().getName());
+		if (newName != null)
 			method = new Method(new Class(newName), method.getName(), method.getType());
 	}
 }
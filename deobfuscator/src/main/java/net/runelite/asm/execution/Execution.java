@@ -25,32 +25,48 @@
 
 package net.runelite.asm.execution;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import net.runelite.asm.ClassFile;
 import net.runelite.asm.ClassGroup;
 import net.runelite.asm.Method;
 import net.runelite.asm.attributes.code.Instruction;
 import net.runelite.deob.Deob;
 import org.apache.commons.collections4.map.MultiValueMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class Execution
 {
+	private static final Logger logger = LoggerFactory.getLogger(Execution.class);
+
 	private ClassGroup group;
-	public List<Frame> frames = new ArrayList<>(), framesOther = new ArrayList<>();
-	public Set<Method> methods = new HashSet<>(); // all methods
-	public Set<Instruction> executed = new HashSet<>(); // executed instructions
-	private MultiValueMap<WeakInstructionContext, Method> invokes = new MultiValueMap<>();
+	public List<Frame> frames = new LinkedList<>(); // frames of the method being executed
+	private final Map<Method, Deque<Frame>> pending = new LinkedHashMap<>(); // frames of other methods, in order of first frame
+	public Set<Method> methods = ConcurrentHashMap.newKeySet(); // all methods
+	public Set<Instruction> executed = ConcurrentHashMap.newKeySet(); // executed instructions
+	private MultiValueMap<WeakInstructionContext, Method> invokes = new MultiValueMap<>(); // guarded by hasInvoked
 	public boolean paused;
 	public boolean step = false;
 	public boolean noInvoke = false;
 	private List<ExecutionVisitor> visitors = new ArrayList<>();
 	private List<FrameVisitor> frameVisitors = new ArrayList<>();
 	private List<MethodContextVisitor> methodContextVisitors = new ArrayList<>();
+	private ExecutorService executor;
+	private final ThreadLocal<MethodRun> current = new ThreadLocal<>();
+	private int frameCount;
 
 	public Execution(ClassGroup group)
 	{
@@ -99,8 +115,51 @@ public class Execution
 			addFrame(frame); // I guess this method name is overriding a jre interface (init, run, ?).
 		}
 	}
+
+	/**
+	 * Populate frames for the given methods only, with unknown arguments
+	 */
+	public void populateMethods(Collection<Method> methods)
+	{
+		group.buildClassGraph(); // required when looking up methods
+		group.lookup(); // lookup methods
+
+		for (Method m : methods)
+		{
+			if (m.getCode() == null)
+			{
+				this.methods.add(m);
+				continue;
+			}
+
+			addMethod(m);
+		}
+	}
 	
-	public boolean hasInvoked(InstructionContext from, Method to)
+	/**
+	 * Execute independent method contexts in parallel on the given executor.
+	 * Methods are executed in a different order than by a serial run, so
+	 * this can't be used with visitors, which may depend on that order.
+	 */
+	public void setExecutor(ExecutorService executor)
+	{
+		if (executor != null && hasVisitors())
+			throw new IllegalStateException("visitors can't be used with an executor");
+
+		this.executor = executor;
+	}
+
+	private boolean hasVisitors()
+	{
+		return !visitors.isEmpty() || !frameVisitors.isEmpty() || !methodContextVisitors.isEmpty();
+	}
+
+	/**
+	 * Check whether an invoke has already been executed, and record it if
+	 * not. This is synchronized because methods executing in parallel share
+	 * {@code invokes}, which must only be accessed from here.
+	 */
+	public synchronized boolean hasInvoked(InstructionContext from, Method to)
 	{
 		Collection<Method> methods = invokes.getCollection(from.toWeak());
 		if (methods != null && methods.contains(to))
@@ -112,10 +171,17 @@ public class Execution
 
 	public void addFrame(Frame frame)
 	{
+		MethodRun run = current.get();
+		if (run != null)
+		{
+			run.add(frame);
+			return;
+		}
+
 		if (frames.isEmpty() || frames.get(0).getMethod() == frame.getMethod())
 			frames.add(frame);
 		else
-			framesOther.add(frame);
+			pending.computeIfAbsent(frame.getMethod(), m -> new ArrayDeque<>()).add(frame);
 	}
 	
 	public Frame invoke(InstructionContext from, Method to)
@@ -145,15 +211,20 @@ public class Execution
 	public void run()
 	{
 		assert !paused;
+
+		if (executor != null && !step)
+		{
+			runParallel();
+			return;
+		}
 		
-		int fcount = 0;
 		while (!frames.isEmpty())
 		{
 			Frame frame = frames.get(0);
 			
 			methods.add(frame.getMethod());
 			
-			++fcount;
+			++frameCount;
 			frame.execute();
 			
 			assert frames.get(0) == frame;
@@ -161,7 +232,7 @@ public class Execution
 
 			accept(frame);
 
-			frames.remove(frame);
+			frames.remove(0);
 			
 			if (frames.isEmpty())
 			{
@@ -169,23 +240,116 @@ public class Execution
 
 				accept(frame.getMethodCtx());
 
-				if (framesOther.isEmpty())
+				Iterator<Deque<Frame>> it = pending.values().iterator();
+				if (!it.hasNext())
 					break;
 
-				Frame begin = framesOther.remove(0);
-				frames.add(begin);
-
-				List<Frame> toMove = framesOther.stream().filter(f -> f.getMethod() == begin.getMethod()).collect(Collectors.toList());
-				frames.addAll(toMove);
-				framesOther.removeAll(toMove);
+				frames.addAll(it.next());
+				it.remove();
 			}
 		}
 		
-		System.out.println("Processed " + fcount + " frames");
+		logger.debug("Processed {} frames", frameCount);
+	}
+
+	private void runParallel()
+	{
+		// each round executes every method with pending frames, one task per method.
+		// frames created for other methods are queued for the next round, so no two
+		// tasks ever execute the same method at once
+		List<Deque<Frame>> round = new ArrayList<>();
+		if (!frames.isEmpty())
+		{
+			round.add(new ArrayDeque<>(frames));
+			frames.clear();
+		}
+		round.addAll(pending.values());
+		pending.clear();
+
+		while (!round.isEmpty())
+		{
+			List<Future<MethodRun>> futures = new ArrayList<>(round.size());
+			for (Deque<Frame> queue : round)
+			{
+				futures.add(executor.submit(() -> execute(queue)));
+			}
+
+			// merge in submission order, so the result does not depend on scheduling
+			for (Future<MethodRun> future : futures)
+			{
+				MethodRun run = await(future);
+				frameCount += run.count;
+
+				for (Frame frame : run.other)
+				{
+					pending.computeIfAbsent(frame.getMethod(), m -> new ArrayDeque<>()).add(frame);
+				}
+			}
+
+			round = new ArrayList<>(pending.values());
+			pending.clear();
+		}
+
+		logger.debug("Processed {} frames", frameCount);
+	}
+
+	/**
+	 * @return the number of frames executed by {@link #run()}
+	 */
+	public int getFrameCount()
+	{
+		return frameCount;
+	}
+
+	private MethodRun execute(Deque<Frame> queue)
+	{
+		MethodRun run = new MethodRun(queue);
+		current.set(run);
+		try
+		{
+			Frame frame;
+			while ((frame = queue.poll()) != null)
+			{
+				methods.add(frame.getMethod());
+
+				++run.count;
+				frame.execute();
+
+				assert !frame.isExecuting();
+			}
+		}
+		finally
+		{
+			current.remove();
+		}
+		return run;
+	}
+
+	private static <T> T await(Future<T> future)
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(ex);
+		}
+		catch (ExecutionException ex)
+		{
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new RuntimeException(cause);
+		}
 	}
 
 	public void addExecutionVisitor(ExecutionVisitor ev)
 	{
+		checkNoExecutor();
 		this.visitors.add(ev);
 	}
 
@@ -196,6 +360,7 @@ public class Execution
 
 	public void addFrameVisitor(FrameVisitor pv)
 	{
+		checkNoExecutor();
 		this.frameVisitors.add(pv);
 	}
 
@@ -206,11 +371,43 @@ public class Execution
 	
 	public void addMethodContextVisitor(MethodContextVisitor mcv)
 	{
+		checkNoExecutor();
 		methodContextVisitors.add(mcv);
 	}
+
+	private void checkNoExecutor()
+	{
+		if (executor != null)
+			throw new IllegalStateException("visitors can't be used with an executor");
+	}
 	
 	public void accept(MethodContext m)
 	{
 		methodContextVisitors.forEach(mc -> mc.visit(m));
 	}
+
+	/**
+	 * Frames of a single method context executed by {@link #runParallel()}
+	 */
+	private class MethodRun
+	{
+		private final Deque<Frame> queue;
+		private final Method method;
+		private final List<Frame> other = new ArrayList<>(); // frames for other methods
+		private int count;
+
+		MethodRun(Deque<Frame> queue)
+		{
+			this.queue = queue;
+			this.method = queue.peek().getMethod();
+		}
+
+		void add(Frame frame)
+		{
+			if (frame.getMethod() == method)
+				queue.add(frame);
+			else
+				other.add(frame);
+		}
+	}
 }
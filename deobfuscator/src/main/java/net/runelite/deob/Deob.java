@@ -27,8 +27,9 @@ package net.runelite.deob;
 import com.google.common.base.Stopwatch;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import net.runelite.asm.ClassGroup;
-import net.runelite.asm.execution.Execution;
 import net.runelite.deob.deobfuscators.transformers.GetPathTransformer;
 import net.runelite.deob.deobfuscators.CastNull;
 import net.runelite.deob.deobfuscators.ConstantParameter;
@@ -63,44 +64,53 @@ public class Deob
 	 */
 	public static final int OBFUSCATED_NAME_MAX_LEN = 3;
 
+	/**
+	 * how to check the code still executes after each pass, one of each,
+	 * touched, background or end
+	 */
+	private static final String VALIDATION_PROPERTY = "deob.validation";
+
 	public static void main(String[] args) throws IOException
 	{
 		Stopwatch stopwatch = Stopwatch.createStarted();
 
+		String mode = System.getProperty(VALIDATION_PROPERTY, Validator.Mode.EACH.name());
+		Validator validator = new Validator(Validator.Mode.valueOf(mode.toUpperCase()));
+
 		ClassGroup group = JarUtil.loadJar(new File(args[0]));
 
-		run(group, new RenameUnique());
+		run(group, validator, new RenameUnique());
 
 		// remove except RuntimeException
-		run(group, new RuntimeExceptions());
+		run(group, validator, new RuntimeExceptions());
 
 		// remove unused methods - this leaves Code with no instructions,
 		// which is not valid, so unused methods is run after
-		run(group, new UnreachedCode());
-		run(group, new UnusedMethods());
+		run(group, validator, new UnreachedCode());
+		run(group, validator, new UnusedMethods());
 
 		// remove illegal state exceptions, frees up some parameters
-		run(group, new IllegalStateExceptions());
+		run(group, validator, new IllegalStateExceptions());
 
 		// remove constant logically dead parameters
-		run(group, new ConstantParameter());
+		run(group, validator, new ConstantParameter());
 
 		// remove unhit blocks
-		run(group, new UnreachedCode());
-		run(group, new UnusedMethods());
+		run(group, validator, new UnreachedCode());
+		run(group, validator, new UnusedMethods());
 
 		// remove unused parameters
-		run(group, new UnusedParameters());
+		run(group, validator, new UnusedParameters());
 
 		// remove unused fields
-		run(group, new UnusedFields());
+		run(group, validator, new UnusedFields());
 
 		// remove unused methods, again?
-		run(group, new UnusedMethods());
+		run(group, validator, new UnusedMethods());
 
-		run(group, new FieldInliner());
+		run(group, validator, new FieldInliner());
 
-		run(group, new UnusedClass());
+		run(group, validator, new UnusedClass());
 
 		ModArith mod = new ModArith();
 		mod.run(group);
@@ -124,18 +134,20 @@ public class Deob
 
 		mod.annotateEncryption();
 
-		run(group, new ExprArgOrder());
+		run(group, validator, new ExprArgOrder());
 
-		run(group, new Lvt());
+		run(group, validator, new Lvt());
 
-		run(group, new CastNull());
+		run(group, validator, new CastNull());
 
 		new GetPathTransformer().transform(group);
 		new ClientErrorTransformer().transform(group);
 		new ReflectionTransformer().transform(group);
 		new MaxMemoryTransformer().transform(group);
 
-		JarUtil.saveJar(group, new File(args[1]));
+		validator.finish(group);
+
+		JarUtil.saveJar(group, new File(args[1]), ForkJoinPool.commonPool(), 1);
 
 		stopwatch.stop();
 		logger.info("Done in {}", stopwatch);
@@ -146,17 +158,19 @@ public class Deob
 		return name.length() <= OBFUSCATED_NAME_MAX_LEN || name.startsWith("method") || name.startsWith("vmethod") || name.startsWith("field") || name.startsWith("class");
 	}
 
-	private static void run(ClassGroup group, Deobfuscator deob)
+	private static void run(ClassGroup group, Validator validator, Deobfuscator deob)
 	{
+		String name = deob.getClass().getSimpleName();
+
+		validator.before(group);
+
 		Stopwatch stopwatch = Stopwatch.createStarted();
 		deob.run(group);
 		stopwatch.stop();
 
-		logger.info("{} took {}", deob.getClass().getSimpleName(), stopwatch);
+		logger.info("pass={} time={}ms", name, stopwatch.elapsed(TimeUnit.MILLISECONDS));
 
 		// check code is still correct
-		Execution execution = new Execution(group);
-		execution.populateInitialMethods();
-		execution.run();
+		validator.after(group, name);
 	}
 }
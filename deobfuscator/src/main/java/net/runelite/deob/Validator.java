@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.deob;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.hash.Hashing;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import net.runelite.asm.ClassFile;
+import net.runelite.asm.ClassGroup;
+import net.runelite.asm.Method;
+import net.runelite.asm.execution.Execution;
+import net.runelite.asm.visitors.ClassFileVisitor;
+import org.objectweb.asm.util.Textifier;
+import org.objectweb.asm.util.TraceMethodVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks the code still executes after each deobfuscation pass
+ */
+class Validator
+{
+	private static final Logger logger = LoggerFactory.getLogger(Validator.class);
+
+	enum Mode
+	{
+		/**
+		 * execute the whole group after each pass
+		 */
+		EACH,
+		/**
+		 * execute only the methods each pass changed, without following invokes
+		 */
+		TOUCHED,
+		/**
+		 * execute a snapshot of the group after each pass on a background thread
+		 */
+		BACKGROUND,
+		/**
+		 * execute the whole group once, after the last pass
+		 */
+		END
+	}
+
+	private final Mode mode;
+	private final List<Future<?>> futures = new ArrayList<>();
+	private ExecutorService background;
+	private Map<Method, Long> hashes; // method hashes as of the end of the last pass
+
+	Validator(Mode mode)
+	{
+		this.mode = mode;
+	}
+
+	void before(ClassGroup group)
+	{
+		// the hashes from the end of the last pass are reused, so each pass
+		// is only hashed once. anything changed between passes is validated
+		// along with the next pass
+		if (mode == Mode.TOUCHED && hashes == null)
+		{
+			hashes = hash(group);
+		}
+	}
+
+	void after(ClassGroup group, String pass)
+	{
+		switch (mode)
+		{
+			case EACH:
+				validate(group, null, pass);
+				break;
+			case TOUCHED:
+				validate(group, touched(group), pass);
+				break;
+			case BACKGROUND:
+				if (background == null)
+				{
+					background = Executors.newSingleThreadExecutor();
+				}
+
+				ClassGroup snapshot = copy(group);
+				futures.add(background.submit(() -> validate(snapshot, null, pass)));
+				break;
+		}
+	}
+
+	/**
+	 * Wait for background validations, or validate the group if
+	 * validation was deferred to the end
+	 */
+	void finish(ClassGroup group)
+	{
+		if (mode == Mode.END)
+		{
+			validate(group, null, "end");
+		}
+
+		if (background == null)
+		{
+			return;
+		}
+
+		try
+		{
+			for (Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(ex);
+		}
+		catch (ExecutionException ex)
+		{
+			throw new RuntimeException("validation failed", ex.getCause());
+		}
+		finally
+		{
+			futures.clear();
+			background.shutdownNow();
+			background = null;
+		}
+	}
+
+	private void validate(ClassGroup group, List<Method> methods, String pass)
+	{
+		Stopwatch stopwatch = Stopwatch.createStarted();
+
+		// there are no visitors so methods can run in parallel
+		Execution execution = new Execution(group);
+		execution.setExecutor(ForkJoinPool.commonPool());
+
+		if (methods == null)
+		{
+			execution.populateInitialMethods();
+		}
+		else
+		{
+			execution.noInvoke = true;
+			execution.populateMethods(methods);
+		}
+
+		execution.run();
+
+		stopwatch.stop();
+
+		logger.info("validation pass={} mode={} methods={} frames={} time={}ms",
+			pass, mode, execution.methods.size(), execution.getFrameCount(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * Get the methods changed since the last pass, and remember the
+	 * current hashes for the next pass
+	 */
+	List<Method> touched(ClassGroup group)
+	{
+		Map<Method, Long> now = hash(group);
+		List<Method> touched = new ArrayList<>();
+
+		for (Map.Entry<Method, Long> entry : now.entrySet())
+		{
+			if (!entry.getValue().equals(hashes.get(entry.getKey())))
+			{
+				touched.add(entry.getKey());
+			}
+		}
+
+		hashes = now;
+		return touched;
+	}
+
+	private static Map<Method, Long> hash(ClassGroup group)
+	{
+		Map<Method, Long> hashes = new IdentityHashMap<>();
+
+		for (ClassFile cf : group.getClasses())
+		{
+			for (Method m : cf.getMethods().getMethods())
+			{
+				if (m.getCode() == null)
+				{
+					continue;
+				}
+
+				Textifier textifier = new Textifier();
+				m.accept(new TraceMethodVisitor(textifier));
+
+				StringWriter writer = new StringWriter();
+				textifier.print(new PrintWriter(writer));
+
+				String text = m.getDescriptor() + "\n" + writer;
+				hashes.put(m, Hashing.murmur3_128().hashString(text, StandardCharsets.UTF_8).asLong());
+			}
+		}
+
+		return hashes;
+	}
+
+	private static ClassGroup copy(ClassGroup group)
+	{
+		ClassGroup copy = new ClassGroup();
+
+		for (ClassFile cf : group.getClasses())
+		{
+			ClassFileVisitor visitor = new ClassFileVisitor();
+			cf.accept(visitor);
+			copy.addClass(visitor.getClassFile());
+		}
+
+		copy.initialize();
+		return copy;
+	}
+}
@@ -155,7 +155,7 @@ public class FieldInliner implements Deobfuscator
 				++count;
 			}
 			
-			f.getFields().getFields().remove(f);
+			f.getFields().removeField(f);
 		}
 		
 		return count;
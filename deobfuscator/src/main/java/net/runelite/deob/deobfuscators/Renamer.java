@@ -25,15 +25,15 @@
 
 package net.runelite.deob.deobfuscators;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import net.runelite.asm.ClassFile;
 import net.runelite.asm.ClassGroup;
 import net.runelite.asm.Field;
-import net.runelite.asm.Interfaces;
 import net.runelite.asm.Method;
 import net.runelite.asm.attributes.Code;
 import net.runelite.asm.attributes.annotation.Annotation;
-import net.runelite.asm.attributes.code.Exceptions;
 import net.runelite.asm.attributes.code.Instruction;
 import net.runelite.asm.signature.Signature;
 import net.runelite.asm.signature.Type;
@@ -55,82 +55,93 @@ public class Renamer implements Deobfuscator
 		this.mappings = mappings;
 	}
 
-	private void renameClass(ClassFile on, ClassFile old, String name)
+	/**
+	 * Rename references to the classes in names on a single class
+	 */
+	private static void renameClasses(ClassFile cf, Map<String, String> names)
 	{
-		if (on.getParentClass().getName().equals(old.getName()))
-			on.setParentClass(new net.runelite.asm.pool.Class(name));
-		
-		Interfaces interfaces = on.getInterfaces();
-		List<net.runelite.asm.pool.Class> interfaceList = interfaces.getInterfaces();
-		for (net.runelite.asm.pool.Class inter : interfaceList)
-			if (inter.getName().equals(old.getName()))
-			{
-				int idx = interfaceList.indexOf(inter);
-				interfaceList.remove(idx);
-				interfaceList.add(idx, new net.runelite.asm.pool.Class(name));
-				break;
-			}
-	}
-	
-	private void renameClass(ClassGroup group, ClassFile cf, String name)
-	{	
-		for (ClassFile c : group.getClasses())
+		// rename on child interfaces and classes
+		String parent = names.get(cf.getParentClass().getName());
+		if (parent != null)
+			cf.setParentClass(new net.runelite.asm.pool.Class(parent));
+
+		List<net.runelite.asm.pool.Class> interfaces = cf.getInterfaces().getInterfaces();
+		for (int i = 0; i < interfaces.size(); ++i)
 		{
-			// rename on child interfaces and classes
-			renameClass(c, cf, name);
-			
-			for (Method method : c.getMethods().getMethods())
+			String name = names.get(interfaces.get(i).getName());
+			if (name != null)
+				interfaces.set(i, new net.runelite.asm.pool.Class(name));
+		}
+
+		for (Method method : cf.getMethods().getMethods())
+		{
+			// rename on instructions. this includes method calls and field accesses.
+			if (method.getCode() != null)
 			{
-				// rename on instructions. this includes method calls and field accesses.
-				if (method.getCode() != null)
-				{
-					Code code = method.getCode();
+				Code code = method.getCode();
 
-					// rename on instructions
-					for (Instruction i : code.getInstructions().getInstructions())
-						i.renameClass(cf.getName(), name);
+				// rename on instructions
+				for (Instruction i : code.getInstructions().getInstructions())
+					i.renameClasses(names);
 
-					// rename on exception handlers
-					Exceptions exceptions = code.getExceptions();
-					exceptions.renameClass(cf, name);
-				}
-				
-				// rename on parameters
-				Signature signature = method.getDescriptor();
-				for (int i = 0; i < signature.size(); ++i)
-				{
-					Type type = signature.getTypeOfArg(i);
-					
-					if (type.getType().equals("L" + cf.getName() + ";"))
-						signature.setTypeOfArg(i, new Type("L" + name + ";", type.getArrayDims())); 
-				}
-				
-				// rename return type
-				if (signature.getReturnValue().getType().equals("L" + cf.getName() + ";"))
-					signature.setTypeOfReturnValue(new Type("L" + name + ";", signature.getReturnValue().getArrayDims()));
-				
-				// rename on exceptions thrown
-				if (method.getExceptions() != null)
-					method.getExceptions().renameClass(cf, name);
+				// rename on exception handlers
+				code.getExceptions().renameClasses(names);
 			}
-			
-			// rename on fields
-			for (Field field : c.getFields().getFields())
-				if (field.getType().getType().equals("L" + cf.getName() + ";"))
-					field.setType(new Type("L" + name + ";", field.getType().getArrayDims()));
+
+			// rename on parameters and return type
+			Signature signature = method.getDescriptor();
+			Signature renamed = renameSignature(signature, names);
+			if (renamed != signature)
+				method.setDescriptor(renamed);
+
+			// rename on exceptions thrown
+			if (method.getExceptions() != null)
+				method.getExceptions().renameClasses(names);
 		}
 
-		if (cf.getAnnotations().find(DeobAnnotations.OBFUSCATED_NAME) == null)
+		// rename on fields
+		for (Field field : cf.getFields().getFields())
+			field.setType(renameType(field.getType(), names));
+	}
+
+	private static Type renameType(Type t, Map<String, String> names)
+	{
+		String type = t.getType();
+		if (!type.startsWith("L"))
+			return t;
+
+		String newName = names.get(type.substring(1, type.length() - 1)); // remove L ;
+		if (newName == null)
+			return t;
+
+		return new Type("L" + newName + ";", t.getArrayDims());
+	}
+
+	/**
+	 * @return the renamed signature, or s if nothing was renamed
+	 */
+	private static Signature renameSignature(Signature s, Map<String, String> names)
+	{
+		boolean renamed = false;
+
+		Signature sig = new Signature();
+		sig.setTypeOfReturnValue(renameType(s.getReturnValue(), names));
+		renamed |= sig.getReturnValue() != s.getReturnValue();
+
+		for (Type t : s.getArguments())
 		{
-			cf.getAnnotations().addAnnotation(DeobAnnotations.OBFUSCATED_NAME, "value", cf.getName());
+			Type type = renameType(t, names);
+			renamed |= type != t;
+			sig.addArg(type);
 		}
 
-		cf.setName(name);
+		return renamed ? sig : s;
 	}
-	
+
 	private void regeneratePool(ClassGroup group)
 	{
-		for (ClassFile cf : group.getClasses())
+		group.getClasses().parallelStream().forEach(cf ->
+		{
 			for (Method m : cf.getMethods().getMethods())
 			{
 				Code c = m.getCode();
@@ -139,6 +150,7 @@ public class Renamer implements Deobfuscator
 				
 				c.getInstructions().regeneratePool();
 			}
+		});
 	}
 
 	@Override
@@ -148,7 +160,16 @@ public class Renamer implements Deobfuscator
 		group.lookup();
 		
 		int classes = 0, fields = 0, methods = 0;
-		
+
+		// new class names, by old name
+		Map<String, String> names = new HashMap<>();
+		for (ClassFile cf : group.getClasses())
+		{
+			String newName = mappings.get(cf.getPoolClass());
+			if (newName != null)
+				names.put(cf.getName(), newName);
+		}
+
 		// rename fields
 		for (ClassFile cf : group.getClasses())
 			for (Field field : cf.getFields().getFields())
@@ -177,7 +198,7 @@ public class Renamer implements Deobfuscator
 				if (an != null)
 				{
 					Signature obfuscatedSig = new Signature(an.getElement().getString());
-					Signature updatedSig = renameSignature(obfuscatedSig);
+					Signature updatedSig = renameSignature(obfuscatedSig, names);
 					an.getElement().setValue(updatedSig.toString());
 				}
 
@@ -200,55 +221,31 @@ public class Renamer implements Deobfuscator
 				methods += virtualMethods.size();
 			}
 		
-		for (ClassFile cf : group.getClasses())
+		// rename classes. all references are renamed in one pass over the
+		// group, and each class only modifies itself, so it runs in parallel
+		if (!names.isEmpty())
 		{
-			String newName = mappings.get(cf.getPoolClass());
-			if (newName == null)
-				continue;
+			group.getClasses().parallelStream()
+				.forEach(cf -> renameClasses(cf, names));
 
-			renameClass(group, cf, newName);
-			++classes;
+			for (ClassFile cf : group.getClasses())
+			{
+				String newName = names.get(cf.getName());
+				if (newName == null)
+					continue;
+
+				if (cf.getAnnotations().find(DeobAnnotations.OBFUSCATED_NAME) == null)
+				{
+					cf.getAnnotations().addAnnotation(DeobAnnotations.OBFUSCATED_NAME, "value", cf.getName());
+				}
+
+				cf.setName(newName);
+				++classes;
+			}
 		}
 		
 		this.regeneratePool(group);
 
 		logger.info("Renamed {} classes, {} fields, and {} methods", classes, fields, methods);
 	}
-
-	private Type renameType(Type t)
-	{
-		if (t.isPrimitive())
-		{
-			return t;
-		}
-
-		String className = t.getType();
-		assert className.startsWith("L");
-		assert className.endsWith(";");
-
-		className = className.substring(1, className.length() - 1); // remove L ;
-
-		String newName = mappings.get(new net.runelite.asm.pool.Class(className));
-		if (newName == null)
-		{
-			return t;
-		}
-
-		Type type = new Type("L" + newName + ";", t.getArrayDims());
-
-		logger.debug("Renamed {} -> {}", t, type);
-
-		return type;
-	}
-
-	private Signature renameSignature(Signature s)
-	{
-		Signature sig = new Signature();
-		sig.setTypeOfReturnValue(renameType(s.getReturnValue()));
-		for (Type t : s.getArguments())
-		{
-			sig.addArg(renameType(t));
-		}
-		return sig;
-	}
 }
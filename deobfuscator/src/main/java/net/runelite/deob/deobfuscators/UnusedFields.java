@@ -72,7 +72,7 @@ public class UnusedFields implements Deobfuscator
 			for (Field f : new ArrayList<>(cf.getFields().getFields()))
 				if (!used.contains(f))
 				{
-					cf.getFields().getFields().remove(f);
+					cf.getFields().removeField(f);
 					++count;
 				}
 
@@ -25,7 +25,11 @@
 
 package net.runelite.deob.deobfuscators.mapping;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import net.runelite.asm.Method;
 
 public class ExecutionMapper
@@ -41,15 +45,47 @@ public class ExecutionMapper
 		this.methods2 = methods2;
 	}
 
+	public Method getMethod()
+	{
+		return method1;
+	}
+
 	public ParallelExecutorMapping run()
 	{
-		ParallelExecutorMapping highest = null;
-		boolean multiple = false;
+		List<ParallelExecutorMapping> mappings = new ArrayList<>(methods2.size());
+		for (Method m : methods2)
+		{
+			mappings.add(MappingExecutorUtil.map(method1, m));
+		}
+		return highest(mappings);
+	}
 
+	/**
+	 * Map each candidate on the pool. The result is the same as {@link #run()}.
+	 */
+	public ParallelExecutorMapping run(ForkJoinPool pool)
+	{
+		List<ForkJoinTask<ParallelExecutorMapping>> tasks = new ArrayList<>(methods2.size());
 		for (Method m : methods2)
 		{
-			ParallelExecutorMapping mapping = MappingExecutorUtil.map(method1, m);
+			tasks.add(pool.submit(() -> MappingExecutorUtil.map(method1, m)));
+		}
+
+		List<ParallelExecutorMapping> mappings = new ArrayList<>(tasks.size());
+		for (ForkJoinTask<ParallelExecutorMapping> task : tasks)
+		{
+			mappings.add(task.join());
+		}
+		return highest(mappings);
+	}
 
+	private static ParallelExecutorMapping highest(List<ParallelExecutorMapping> mappings)
+	{
+		ParallelExecutorMapping highest = null;
+		boolean multiple = false;
+
+		for (ParallelExecutorMapping mapping : mappings)
+		{
 			if (highest == null || mapping.same > highest.same)
 			{
 				highest = mapping;
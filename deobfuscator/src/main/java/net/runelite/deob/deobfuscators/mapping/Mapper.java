@@ -26,7 +26,13 @@ package net.runelite.deob.deobfuscators.mapping;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import net.runelite.asm.ClassFile;
 import net.runelite.asm.ClassGroup;
@@ -40,6 +46,7 @@ public class Mapper
 
 	private final ClassGroup source, target;
 	private ParallelExecutorMapping mapping;
+	private ForkJoinPool pool;
 
 	public Mapper(ClassGroup source, ClassGroup target)
 	{
@@ -47,6 +54,16 @@ public class Mapper
 		this.target = target;
 	}
 
+	/**
+	 * Map methods and their candidates concurrently on the given pool.
+	 * Results are merged in the same order as when mapping serially,
+	 * so the final mapping is the same.
+	 */
+	public void setPool(ForkJoinPool pool)
+	{
+		this.pool = pool;
+	}
+
 	public ParallelExecutorMapping getMapping()
 	{
 		return mapping;
@@ -78,15 +95,18 @@ public class Mapper
 		MethodSignatureMapper msm = new MethodSignatureMapper();
 		msm.map(source, target);
 
-		List<ParallelExecutorMapping> pmes = new ArrayList<>();
-
+		List<ExecutionMapper> mappers = new ArrayList<>();
 		for (Method m : msm.getMap().keySet())
 		{
 			Collection<Method> methods = msm.getMap().get(m);
+			mappers.add(new ExecutionMapper(m, methods));
+		}
 
-			ExecutionMapper em = new ExecutionMapper(m, methods);
+		List<ParallelExecutorMapping> pmes = new ArrayList<>();
 
-			ParallelExecutorMapping mapping = em.run();
+		for (Supplier<ParallelExecutorMapping> result : submit(mappers))
+		{
+			ParallelExecutorMapping mapping = result.get();
 			if (mapping == null)
 			{
 				continue;
@@ -113,15 +133,18 @@ public class Mapper
 		StaticMethodSignatureMapper smsm = new StaticMethodSignatureMapper();
 		smsm.map(source, target);
 
-		List<ParallelExecutorMapping> pmes = new ArrayList<>();
-
+		List<ExecutionMapper> mappers = new ArrayList<>();
 		for (Method m : smsm.getMap().keySet())
 		{
 			Collection<Method> methods = smsm.getMap().get(m);
+			mappers.add(new ExecutionMapper(m, methods));
+		}
 
-			ExecutionMapper em = new ExecutionMapper(m, methods);
+		List<ParallelExecutorMapping> pmes = new ArrayList<>();
 
-			ParallelExecutorMapping mapping = em.run();
+		for (Supplier<ParallelExecutorMapping> result : submit(mappers))
+		{
+			ParallelExecutorMapping mapping = result.get();
 			if (mapping == null)
 			{
 				continue;
@@ -149,6 +172,8 @@ public class Mapper
 	{
 		// pass #2 at method mapping, can use class file mappings learned
 
+		List<ExecutionMapper> mappers = new ArrayList<>();
+
 		for (ClassFile cf : source.getClasses())
 		{
 			ClassFile other = (ClassFile) mapping.get(cf);
@@ -181,19 +206,29 @@ public class Mapper
 					.collect(Collectors.toList());
 
 				// Run over execution mapper
-				ExecutionMapper em = new ExecutionMapper(method, possible);
-				ParallelExecutorMapping map = em.run();
-				if (map == null)
-				{
-					continue;
-				}
-
-				map.map(null, map.m1, map.m2);
+				mappers.add(new ExecutionMapper(method, possible));
+			}
+		}
 
-				logger.debug("Mapped {} -> {} based on exiting class mapping and method signatures", map.m1, map.m2);
+		List<Supplier<ParallelExecutorMapping>> results = submit(mappers);
+		for (int i = 0; i < mappers.size(); ++i)
+		{
+			if (mapping.get(mappers.get(i).getMethod()) != null) // mapped by an earlier merge
+			{
+				continue;
+			}
 
-				mapping.merge(map);
+			ParallelExecutorMapping map = results.get(i).get();
+			if (map == null)
+			{
+				continue;
 			}
+
+			map.map(null, map.m1, map.m2);
+
+			logger.debug("Mapped {} -> {} based on exiting class mapping and method signatures", map.m1, map.m2);
+
+			mapping.merge(map);
 		}
 	}
 
@@ -201,18 +236,27 @@ public class Mapper
 	{
 		// map has already been reduced
 
-		for (Object o : mapping.getMap().keySet())
-		{
-			Mapping m = mapping.getMappings(o).iterator().next();
+		Set<Object> keys = mapping.getMap().keySet();
 
-			if (m.wasExecuted || !(m.getFrom() instanceof Method))
+		// map the unexecuted methods up front on the pool, merging below still
+		// happens in order and falls back to mapping serially if merges changed things
+		Map<Mapping, ForkJoinTask<ParallelExecutorMapping>> tasks = new IdentityHashMap<>();
+		if (pool != null)
+		{
+			for (Object o : keys)
 			{
-				continue;
+				Mapping m = getUnexecuted(mapping, o);
+				if (m != null)
+				{
+					tasks.put(m, pool.submit(() -> MappingExecutorUtil.map((Method) m.getFrom(), (Method) m.getObject())));
+				}
 			}
+		}
 
-			Method m1 = (Method) m.getFrom(), m2 = (Method) m.getObject();
-
-			if (m1.getCode() == null || m2.getCode() == null)
+		for (Object o : keys)
+		{
+			Mapping m = getUnexecuted(mapping, o);
+			if (m == null)
 			{
 				continue;
 			}
@@ -221,8 +265,54 @@ public class Mapper
 			// something else, but wasn't executed itself
 			logger.debug("Wasn't executed {}", m);
 
-			ParallelExecutorMapping ma = MappingExecutorUtil.map(m1, m2);
+			ForkJoinTask<ParallelExecutorMapping> task = tasks.get(m);
+			ParallelExecutorMapping ma = task != null ? task.join()
+				: MappingExecutorUtil.map((Method) m.getFrom(), (Method) m.getObject());
 			mapping.merge(ma);
 		}
 	}
+
+	private static Mapping getUnexecuted(ParallelExecutorMapping mapping, Object o)
+	{
+		Mapping m = mapping.getMappings(o).iterator().next();
+
+		if (m.wasExecuted || !(m.getFrom() instanceof Method))
+		{
+			return null;
+		}
+
+		Method m1 = (Method) m.getFrom(), m2 = (Method) m.getObject();
+
+		if (m1.getCode() == null || m2.getCode() == null)
+		{
+			return null;
+		}
+
+		return m;
+	}
+
+	/**
+	 * Run each mapper, on the pool if there is one. The results are
+	 * supplied in the same order as the mappers, and when running
+	 * serially each mapper only runs once its result is asked for.
+	 */
+	private List<Supplier<ParallelExecutorMapping>> submit(List<ExecutionMapper> mappers)
+	{
+		List<Supplier<ParallelExecutorMapping>> results = new ArrayList<>(mappers.size());
+
+		for (ExecutionMapper em : mappers)
+		{
+			if (pool == null)
+			{
+				results.add(em::run);
+			}
+			else
+			{
+				ForkJoinTask<ParallelExecutorMapping> task = pool.submit(() -> em.run(pool));
+				results.add(task::join);
+			}
+		}
+
+		return results;
+	}
 }
@@ -26,6 +26,7 @@ package net.runelite.deob.updater;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
 import net.runelite.asm.ClassGroup;
 import net.runelite.deob.deobfuscators.mapping.AnnotationIntegrityChecker;
 import net.runelite.deob.deobfuscators.mapping.AnnotationMapper;
@@ -50,6 +51,7 @@ public class UpdateMappings
 	public void update()
 	{
 		Mapper mapper = new Mapper(group1, group2);
+		mapper.setPool(ForkJoinPool.commonPool());
 		mapper.run();
 		ParallelExecutorMapping mapping = mapper.getMapping();
 
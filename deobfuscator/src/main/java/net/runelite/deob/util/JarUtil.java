@@ -24,11 +24,17 @@
  */
 package net.runelite.deob.util;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
@@ -81,22 +87,97 @@ public class JarUtil
 
 	public static void saveJar(ClassGroup group, File jarfile) throws IOException
 	{
+		saveJar(group, jarfile, MoreExecutors.newDirectExecutorService(), 1);
+	}
+
+	/**
+	 * Save the group to a jar, writing classes concurrently on the executor.
+	 * Entries are written in the same order as the group's classes.
+	 *
+	 * @param verifyEvery verify the data flow of every nth class, or none if 0
+	 */
+	public static void saveJar(ClassGroup group, File jarfile, ExecutorService executor, int verifyEvery) throws IOException
+	{
+		List<ClassFile> classes = group.getClasses();
+		List<Future<byte[]>> data = writeClasses(group, executor, verifyEvery);
+
 		try (JarOutputStream jout = new JarOutputStream(new FileOutputStream(jarfile), new Manifest()))
 		{
-			for (ClassFile cf : group.getClasses())
+			for (int i = 0; i < classes.size(); ++i)
 			{
-				JarEntry entry = new JarEntry(cf.getName() + ".class");
+				JarEntry entry = new JarEntry(classes.get(i).getName() + ".class");
 				jout.putNextEntry(entry);
 
-				byte[] data = writeClass(group, cf);
-
-				jout.write(data);
+				jout.write(await(data.get(i)));
 				jout.closeEntry();
 			}
 		}
+		finally
+		{
+			data.forEach(f -> f.cancel(false));
+		}
+	}
+
+	/**
+	 * Submit every class of the group to be written on the executor
+	 *
+	 * @param verifyEvery verify the data flow of every nth class, or none if 0
+	 * @return the class data, in the same order as the group's classes
+	 */
+	public static List<Future<byte[]>> writeClasses(ClassGroup group, ExecutorService executor, int verifyEvery)
+	{
+		return writeClasses(group, group.getClasses(), executor, verifyEvery);
+	}
+
+	/**
+	 * Submit the given classes of the group to be written on the executor
+	 *
+	 * @param verifyEvery verify the data flow of every nth class, or none if 0
+	 * @return the class data, in the same order as classes
+	 */
+	public static List<Future<byte[]>> writeClasses(ClassGroup group, List<ClassFile> classes, ExecutorService executor, int verifyEvery)
+	{
+		List<Future<byte[]>> data = new ArrayList<>(classes.size());
+
+		for (int i = 0; i < classes.size(); ++i)
+		{
+			ClassFile cf = classes.get(i);
+			boolean verify = verifyEvery > 0 && i % verifyEvery == 0;
+
+			data.add(executor.submit(() -> writeClass(group, cf, verify)));
+		}
+
+		return data;
+	}
+
+	public static <T> T await(Future<T> future) throws IOException
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException(ex);
+		}
+		catch (ExecutionException ex)
+		{
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IOException(cause);
+		}
 	}
 
 	public static byte[] writeClass(ClassGroup group, ClassFile cf)
+	{
+		return writeClass(group, cf, true);
+	}
+
+	public static byte[] writeClass(ClassGroup group, ClassFile cf, boolean verify)
 	{
 		ClassWriter writer = new NonloadingClassWriter(group, ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
 		CheckClassAdapter cca = new CheckClassAdapter(writer, false);
@@ -105,7 +186,10 @@ public class JarUtil
 
 		byte[] data = writer.toByteArray();
 
-		validateDataFlow(cf.getName(), data);
+		if (verify)
+		{
+			validateDataFlow(cf.getName(), data);
+		}
 
 		return data;
 	}
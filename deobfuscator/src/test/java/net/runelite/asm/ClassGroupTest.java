@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.asm;
+
+import net.runelite.asm.signature.Signature;
+import net.runelite.asm.signature.Type;
+import net.runelite.deob.ClassGroupFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClassGroupTest
+{
+	@Test
+	public void testFindClass()
+	{
+		ClassGroup group = ClassGroupFactory.generateGroup();
+
+		ClassFile cf = group.findClass("test");
+		Assert.assertNotNull(cf);
+
+		cf.setName("renamed");
+		Assert.assertNull(group.findClass("test"));
+		Assert.assertSame(cf, group.findClass("renamed"));
+
+		group.removeClass(cf);
+		Assert.assertNull(group.findClass("renamed"));
+	}
+
+	@Test
+	public void testSwapClassNames()
+	{
+		ClassGroup group = ClassGroupFactory.generateGroup();
+		ClassFile test = group.findClass("test");
+
+		ClassFile other = new ClassFile(group);
+		other.setName("other");
+		other.setSuperName("java/lang/Object");
+		group.addClass(other);
+
+		// the class still named other keeps it until it is renamed too
+		test.setName("other");
+		Assert.assertSame(other, group.findClass("other"));
+		Assert.assertNull(group.findClass("test"));
+
+		other.setName("test");
+		Assert.assertSame(test, group.findClass("other"));
+		Assert.assertSame(other, group.findClass("test"));
+
+		// removed classes are not indexed when renamed
+		group.removeClass(other);
+		other.setName("removed");
+		Assert.assertNull(group.findClass("removed"));
+		Assert.assertNull(group.findClass("test"));
+	}
+
+	@Test
+	public void testFindMethod()
+	{
+		ClassGroup group = ClassGroupFactory.generateGroup();
+		ClassFile cf = group.findClass("test");
+
+		Method void1 = cf.findMethod("void1");
+		Method void2 = cf.findMethod("void2");
+		Assert.assertNotNull(void1);
+		Assert.assertSame(void1, cf.findMethod("void1", new Signature("()V")));
+		Assert.assertNull(cf.findMethod("void1", new Signature("(I)V")));
+
+		// renaming keeps the first method in declaration order
+		void2.setName("void1");
+		Assert.assertSame(void1, cf.findMethod("void1"));
+		Assert.assertNull(cf.findMethod("void2"));
+
+		void1.setName("void5");
+		Assert.assertSame(void2, cf.findMethod("void1"));
+		Assert.assertSame(void1, cf.findMethod("void5"));
+
+		cf.getMethods().removeMethod(void1);
+		Assert.assertNull(cf.findMethod("void5"));
+	}
+
+	@Test
+	public void testFindField()
+	{
+		ClassGroup group = ClassGroupFactory.generateGroup();
+		ClassFile cf = group.findClass("test");
+
+		Field field = cf.findField("field");
+		Assert.assertSame(field, cf.findField("field", new Type("I")));
+
+		field.setName("field2");
+		Assert.assertNull(cf.findField("field"));
+		Assert.assertSame(field, cf.findField("field2"));
+
+		cf.getFields().removeField(field);
+		Assert.assertNull(cf.findField("field2"));
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.runelite.asm.execution;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import net.runelite.asm.Method;
+import net.runelite.deob.ClassGroupFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelExecutionTest
+{
+	private ExecutorService executor;
+
+	@Before
+	public void before()
+	{
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void after()
+	{
+		executor.shutdown();
+	}
+
+	@Test
+	public void testParallel() throws Exception
+	{
+		Execution serial = new Execution(ClassGroupFactory.loadTestClasses());
+		serial.populateInitialMethods();
+		serial.run();
+
+		Execution parallel = new Execution(ClassGroupFactory.loadTestClasses());
+		parallel.setExecutor(executor);
+		parallel.populateInitialMethods();
+		parallel.run();
+
+		Assert.assertFalse(serial.executed.isEmpty());
+		Assert.assertEquals(serial.executed.size(), parallel.executed.size());
+		Assert.assertEquals(names(serial.methods), names(parallel.methods));
+		Assert.assertEquals(serial.getFrameCount(), parallel.getFrameCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testExecutorWithVisitor() throws Exception
+	{
+		Execution execution = new Execution(ClassGroupFactory.loadTestClasses());
+		execution.addExecutionVisitor(ictx -> { });
+		execution.setExecutor(executor);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testVisitorWithExecutor() throws Exception
+	{
+		Execution execution = new Execution(ClassGroupFactory.loadTestClasses());
+		execution.setExecutor(executor);
+		execution.addMethodContextVisitor(ctx -> { });
+	}
+
+	private static Set<String> names(Set<Method> methods)
+	{
+		return methods.stream()
+			.map(Method::toString)
+			.collect(Collectors.toSet());
+	}
+}
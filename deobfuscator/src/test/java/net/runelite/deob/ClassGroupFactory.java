@@ -24,8 +24,10 @@
  */
 package net.runelite.deob;
 
+import java.io.IOException;
 import net.runelite.asm.ClassFile;
 import net.runelite.asm.ClassGroup;
+import net.runelite.asm.ClassUtil;
 import net.runelite.asm.Field;
 import net.runelite.asm.Fields;
 import net.runelite.asm.Method;
@@ -38,6 +40,15 @@ import net.runelite.asm.signature.Type;
 
 public class ClassGroupFactory
 {
+	// compiled test classes with enough code to execute, map and write
+	private static final String[] TEST_CLASSES =
+	{
+		"net/runelite/deob/deobfuscators/arithmetic/TestClass.class",
+		"net/runelite/deob/deobfuscators/arithmetic/TestClass2.class",
+		"net/runelite/deob/deobfuscators/unreachedcode/UnreachableTest.class",
+		"net/runelite/asm/annotations/TestClass.class"
+	};
+
 	private static void addVoidMethod(Methods methods, String name)
 	{
 		Method method = new Method(methods, name, new Signature("()V"));
@@ -92,4 +103,19 @@ public class ClassGroupFactory
 
 		return group;
 	}
+
+	/**
+	 * Load a new group of the compiled test classes
+	 */
+	public static ClassGroup loadTestClasses() throws IOException
+	{
+		ClassGroup group = new ClassGroup();
+		for (String name : TEST_CLASSES)
+		{
+			ClassFile cf = ClassUtil.loadClass(ClassGroupFactory.class.getClassLoader().getResourceAsStream(name));
+			group.addClass(cf);
+		}
+		group.initialize();
+		return group;
+	}
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.deob;
+
+import java.util.Arrays;
+import net.runelite.asm.ClassGroup;
+import net.runelite.asm.Method;
+import net.runelite.asm.attributes.code.Instructions;
+import net.runelite.asm.attributes.code.instructions.IConst_0;
+import net.runelite.asm.attributes.code.instructions.Pop;
+import net.runelite.asm.attributes.code.instructions.VReturn;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ValidatorTest
+{
+	private ClassGroup group;
+
+	@Before
+	public void before()
+	{
+		group = ClassGroupFactory.generateGroup();
+
+		Instructions ins = group.findClass("test").findMethod("func").getCode().getInstructions();
+		ins.addInstruction(new VReturn(ins));
+	}
+
+	@Test
+	public void testTouched()
+	{
+		Validator validator = new Validator(Validator.Mode.TOUCHED);
+		validator.before(group);
+
+		Method method = group.findClass("test").findMethod("func2");
+		method.getCode().setMaxStack(1);
+
+		Instructions ins = method.getCode().getInstructions();
+		ins.addInstruction(0, new IConst_0(ins));
+		ins.addInstruction(1, new Pop(ins));
+
+		Assert.assertEquals(Arrays.asList(method), validator.touched(group));
+
+		validator.after(group, "test");
+		validator.finish(group);
+	}
+
+	@Test
+	public void testTouchedAcrossPasses()
+	{
+		Validator validator = new Validator(Validator.Mode.TOUCHED);
+		validator.before(group);
+
+		Method func2 = group.findClass("test").findMethod("func2");
+		func2.getCode().setMaxStack(1);
+
+		Instructions ins = func2.getCode().getInstructions();
+		ins.addInstruction(0, new IConst_0(ins));
+		ins.addInstruction(1, new Pop(ins));
+
+		validator.after(group, "first");
+
+		// the next pass only sees its own changes
+		validator.before(group);
+
+		Method func = group.findClass("test").findMethod("func");
+		func.getCode().setMaxStack(1);
+
+		ins = func.getCode().getInstructions();
+		ins.addInstruction(0, new IConst_0(ins));
+		ins.addInstruction(1, new Pop(ins));
+
+		Assert.assertEquals(Arrays.asList(func), validator.touched(group));
+
+		validator.after(group, "second");
+		validator.finish(group);
+	}
+
+	@Test
+	public void testBackground()
+	{
+		Validator validator = new Validator(Validator.Mode.BACKGROUND);
+		validator.before(group);
+		validator.after(group, "test");
+		validator.finish(group);
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testBackgroundFailure()
+	{
+		// pop from an empty stack
+		Instructions ins = group.findClass("test").findMethod("func2").getCode().getInstructions();
+		ins.addInstruction(0, new Pop(ins));
+
+		Validator validator = new Validator(Validator.Mode.BACKGROUND);
+		validator.before(group);
+		validator.after(group, "test");
+		validator.finish(group);
+	}
+}
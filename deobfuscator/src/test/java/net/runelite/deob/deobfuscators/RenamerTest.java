@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.deob.deobfuscators;
+
+import net.runelite.asm.ClassFile;
+import net.runelite.asm.ClassGroup;
+import net.runelite.asm.Field;
+import net.runelite.asm.Method;
+import net.runelite.asm.signature.Signature;
+import net.runelite.asm.signature.Type;
+import net.runelite.deob.ClassGroupFactory;
+import net.runelite.deob.DeobAnnotations;
+import net.runelite.deob.util.NameMappings;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RenamerTest
+{
+	@Test
+	public void testRenameClasses()
+	{
+		ClassGroup group = ClassGroupFactory.generateGroup();
+
+		ClassFile other = new ClassFile(group);
+		other.setName("other");
+		other.setSuperName("test");
+		group.addClass(other);
+
+		Method method = new Method(other.getMethods(), "method", new Signature("(Ltest;I)Lother;"));
+		other.getMethods().addMethod(method);
+
+		Field field = new Field(other.getFields(), "field", new Type("[Ltest;"));
+		other.getFields().addField(field);
+
+		// swap the names, each reference must only be renamed once
+		NameMappings mappings = new NameMappings();
+		mappings.map(group.findClass("test").getPoolClass(), "other");
+		mappings.map(other.getPoolClass(), "test");
+
+		new Renamer(mappings).run(group);
+
+		Assert.assertSame(other, group.findClass("test"));
+		Assert.assertEquals("other", group.findClass("other").getName());
+		Assert.assertEquals("other", other.getSuperName());
+		Assert.assertEquals(new Signature("(Lother;I)Ltest;"), method.getDescriptor());
+		Assert.assertEquals(new Type("[Lother;"), field.getType());
+		Assert.assertEquals("other", other.getAnnotations().find(DeobAnnotations.OBFUSCATED_NAME).getElement().getString());
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.deob.deobfuscators.mapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import net.runelite.deob.ClassGroupFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MapperTest
+{
+	@Test
+	public void testParallel() throws IOException
+	{
+		Mapper serial = new Mapper(ClassGroupFactory.loadTestClasses(), ClassGroupFactory.loadTestClasses());
+		serial.run();
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try
+		{
+			Mapper parallel = new Mapper(ClassGroupFactory.loadTestClasses(), ClassGroupFactory.loadTestClasses());
+			parallel.setPool(pool);
+			parallel.run();
+
+			Map<String, String> expected = names(serial.getMapping());
+			Assert.assertFalse(expected.isEmpty());
+			Assert.assertEquals(expected, names(parallel.getMapping()));
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	private static Map<String, String> names(ParallelExecutorMapping mapping)
+	{
+		Map<String, String> names = new TreeMap<>();
+		for (Map.Entry<Object, Object> entry : mapping.getMap().entrySet())
+		{
+			names.put(entry.getKey().toString(), String.valueOf(entry.getValue()));
+		}
+		return names;
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.deob.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import net.runelite.asm.ClassGroup;
+import net.runelite.deob.ClassGroupFactory;
+import net.runelite.deob.TemporyFolderLocation;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JarUtilTest
+{
+	@Rule
+	public TemporaryFolder folder = TemporyFolderLocation.getTemporaryFolder();
+
+	@Test
+	public void testSaveJarParallel() throws IOException
+	{
+		File jar = folder.newFile();
+		JarUtil.saveJar(ClassGroupFactory.loadTestClasses(), jar);
+
+		File parallelJar = folder.newFile();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			JarUtil.saveJar(ClassGroupFactory.loadTestClasses(), parallelJar, executor, 0);
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+
+		ClassGroup group = JarUtil.loadJar(jar), parallelGroup = JarUtil.loadJar(parallelJar);
+		Assert.assertEquals(group.getClasses().size(), parallelGroup.getClasses().size());
+		for (int i = 0; i < group.getClasses().size(); ++i)
+		{
+			Assert.assertArrayEquals(
+				JarUtil.writeClass(group, group.getClasses().get(i)),
+				JarUtil.writeClass(parallelGroup, parallelGroup.getClasses().get(i))
+			);
+		}
+	}
+}
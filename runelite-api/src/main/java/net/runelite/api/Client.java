@@ -33,45 +33,62 @@ public class Client
 {
 	private final net.runelite.rs.api.Client client;
 
+	private volatile EntitySnapshot snapshot;
+
 	public Client(net.runelite.rs.api.Client client)
 	{
 		this.client = client;
 	}
 
-	public Player getLocalPlayer()
+	/**
+	 * Get the snapshot of npcs and players for the current game cycle
+	 */
+	private EntitySnapshot getSnapshot()
 	{
-		if (client.getLocalPlayer() == null)
+		int cycle = getGameCycle();
+
+		EntitySnapshot snapshot = this.snapshot;
+		if (snapshot == null || snapshot.getCycle() != cycle)
 		{
-			return null;
+			snapshot = new EntitySnapshot(this, client, cycle, snapshot);
+			this.snapshot = snapshot;
 		}
+		return snapshot;
+	}
 
-		return new Player(this, client.getLocalPlayer());
+	public Player getLocalPlayer()
+	{
+		return getSnapshot().getLocalPlayer();
 	}
 
+	/**
+	 * Get the npcs, indexed by npc index. The array is shared by all
+	 * callers during a game cycle, and must not be modified.
+	 */
 	public NPC[] getNpcs()
 	{
-		return Arrays.stream(client.getCachedNPCs())
-			.map(npc -> npc != null ? new NPC(this, npc) : null)
-			.toArray(size -> new NPC[size]);
+		return getSnapshot().getNpcs();
 	}
 
 	NPC getNpc(int idx)
 	{
-		net.runelite.rs.api.NPC npc = client.getCachedNPCs()[idx];
-		return npc != null ? new NPC(this, npc) : null;
+		NPC[] npcs = getSnapshot().getNpcs();
+		return idx < npcs.length ? npcs[idx] : null;
 	}
 
+	/**
+	 * Get the players, indexed by player index. The array is shared by
+	 * all callers during a game cycle, and must not be modified.
+	 */
 	public Player[] getPlayers()
 	{
-		return Arrays.stream(client.getCachedPlayers())
-			.map(player -> player != null ? new Player(this, player) : null)
-			.toArray(size -> new Player[size]);
+		return getSnapshot().getPlayers();
 	}
 
 	Player getPlayer(int idx)
 	{
-		net.runelite.rs.api.Player player = client.getCachedPlayers()[idx];
-		return player != null ? new Player(this, player) : null;
+		Player[] players = getSnapshot().getPlayers();
+		return idx < players.length ? players[idx] : null;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -112,6 +129,11 @@ public class Client
 		return client.getFPS();
 	}
 
+	public int getGameCycle()
+	{
+		return client.getGameCycle();
+	}
+
 	public int getClientHeight()
 	{
 		return client.getCanvas().getHeight();
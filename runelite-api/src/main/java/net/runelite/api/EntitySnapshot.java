@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api;
+
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Wrappers of the npcs and players of the client during a game cycle.
+ * Wrappers are reused across cycles while they wrap the same object.
+ * The arrays are handed out to every caller during the cycle, and
+ * reused by the next cycle if nothing changed, so they are never
+ * modified once built.
+ */
+class EntitySnapshot
+{
+	private final int cycle;
+	private final NPC[] npcs;
+	private final Player[] players;
+	private final Player localPlayer;
+
+	EntitySnapshot(Client client, net.runelite.rs.api.Client rsClient, int cycle, EntitySnapshot previous)
+	{
+		this.cycle = cycle;
+		this.npcs = wrap(rsClient.getCachedNPCs(), previous != null ? previous.npcs : null,
+			NPC::getNpc, npc -> new NPC(client, npc), NPC[]::new);
+		this.players = wrap(rsClient.getCachedPlayers(), previous != null ? previous.players : null,
+			Player::getPlayer, player -> new Player(client, player), Player[]::new);
+		this.localPlayer = findPlayer(client, rsClient.getLocalPlayer(), players);
+	}
+
+	int getCycle()
+	{
+		return cycle;
+	}
+
+	NPC[] getNpcs()
+	{
+		return npcs;
+	}
+
+	Player[] getPlayers()
+	{
+		return players;
+	}
+
+	Player getLocalPlayer()
+	{
+		return localPlayer;
+	}
+
+	/**
+	 * @return the previous wrappers if they wrap the same objects, otherwise
+	 * new wrappers, reusing the previous wrapper of unchanged slots
+	 */
+	private static <T, W> W[] wrap(T[] cached, W[] previous, Function<W, T> unwrap, Function<T, W> wrap, IntFunction<W[]> newArray)
+	{
+		if (previous != null && previous.length == cached.length)
+		{
+			int i = 0;
+			while (i < cached.length && (cached[i] == null ? previous[i] == null : previous[i] != null && unwrap.apply(previous[i]) == cached[i]))
+			{
+				++i;
+			}
+
+			if (i == cached.length)
+			{
+				return previous;
+			}
+		}
+
+		W[] wrappers = newArray.apply(cached.length);
+		for (int i = 0; i < cached.length; ++i)
+		{
+			T object = cached[i];
+			if (object == null)
+			{
+				continue;
+			}
+
+			W wrapper = previous != null && i < previous.length ? previous[i] : null;
+			wrappers[i] = wrapper != null && unwrap.apply(wrapper) == object ? wrapper : wrap.apply(object);
+		}
+		return wrappers;
+	}
+
+	/**
+	 * Find the wrapper of a player, so the local player is the same
+	 * object as it is in the players array
+	 */
+	private static Player findPlayer(Client client, net.runelite.rs.api.Player player, Player[] players)
+	{
+		if (player == null)
+		{
+			return null;
+		}
+
+		for (Player wrapper : players)
+		{
+			if (wrapper != null && wrapper.getPlayer() == player)
+			{
+				return wrapper;
+			}
+		}
+
+		return new Player(client, player);
+	}
+}
@@ -55,4 +55,20 @@ public class GameObject extends TileObject
 	{
 		return gameObject.getY();
 	}
+
+	/**
+	 * Game objects are equal if they wrap the same object, which is on
+	 * every tile the object covers
+	 */
+	@Override
+	public boolean equals(Object obj)
+	{
+		return obj instanceof GameObject && ((GameObject) obj).gameObject == gameObject;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return System.identityHashCode(gameObject);
+	}
 }
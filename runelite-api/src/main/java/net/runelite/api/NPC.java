@@ -35,6 +35,11 @@ public class NPC extends Actor
 		this.npc = npc;
 	}
 
+	net.runelite.rs.api.NPC getNpc()
+	{
+		return npc;
+	}
+
 	public int getId()
 	{
 		return npc.getComposition().getId();
@@ -38,6 +38,11 @@ public class Player extends Actor
 		this.client = client;
 	}
 
+	net.runelite.rs.api.Player getPlayer()
+	{
+		return player;
+	}
+
 	@Override
 	public String getName()
 	{
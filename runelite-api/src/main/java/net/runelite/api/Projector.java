@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api;
+
+import static net.runelite.api.Perspective.COSINE;
+import static net.runelite.api.Perspective.LOCAL_TILE_SIZE;
+import static net.runelite.api.Perspective.SINE;
+
+/**
+ * Projects local coordinates onto the canvas and minimap using the
+ * camera state captured when the projector was created. Create one per
+ * frame and use it for all points of the frame; results are written to
+ * caller provided arrays, so projecting does not allocate.
+ */
+public class Projector
+{
+	/**
+	 * written for points which can't be projected onto the canvas
+	 */
+	public static final int UNPROJECTED = Integer.MIN_VALUE;
+
+	private final int plane;
+	private final byte[][][] tileSettings;
+	private final int[][][] tileHeights;
+
+	private final int cameraX;
+	private final int cameraY;
+	private final int cameraZ;
+	private final int pitchSin;
+	private final int pitchCos;
+	private final int yawSin;
+	private final int yawCos;
+	private final int scale;
+	private final int centerX;
+	private final int centerY;
+
+	private final Point localLocation;
+	private final int mapSin;
+	private final int mapCos;
+	private final int mapCenterX;
+	private final int mapCenterY;
+
+	public Projector(Client client)
+	{
+		plane = client.getPlane();
+		tileSettings = client.getTileSettings();
+		tileHeights = client.getTileHeights();
+
+		cameraX = client.getCameraX();
+		cameraY = client.getCameraY();
+		cameraZ = client.getCameraZ();
+
+		int cameraPitch = client.getCameraPitch();
+		int cameraYaw = client.getCameraYaw();
+		pitchSin = SINE[cameraPitch];
+		pitchCos = COSINE[cameraPitch];
+		yawSin = SINE[cameraYaw];
+		yawCos = COSINE[cameraYaw];
+
+		scale = client.getScale();
+		centerX = client.getCamera2() / 2;
+		centerY = client.getCamera3() / 2;
+
+		Player localPlayer = client.getLocalPlayer();
+		localLocation = localPlayer != null ? localPlayer.getLocalLocation() : null;
+
+		int angle = client.getMapScale() + client.getMapAngle() & 0x7FF;
+		int mapOffset = client.getMapOffset();
+		mapSin = SINE[angle] * 256 / (mapOffset + 256);
+		mapCos = COSINE[angle] * 256 / (mapOffset + 256);
+
+		int miniMapX = client.getClientWidth() - (!client.isResized() ? 208 : 167);
+		mapCenterX = miniMapX + 167 / 2;
+		mapCenterY = 167 / 2 - 1;
+	}
+
+	/**
+	 * Project local coordinates onto the canvas, as
+	 * {@link Perspective#worldToCanvas(Client, int, int, int, int)} does
+	 * on the current plane.
+	 *
+	 * @param x local x coordinates
+	 * @param y local y coordinates
+	 * @param count number of points to project
+	 * @param zOffset distance from the ground
+	 * @param canvasX receives the canvas x coordinates, or {@link #UNPROJECTED}
+	 * @param canvasY receives the canvas y coordinates, or {@link #UNPROJECTED}
+	 * @return whether all points were projected
+	 */
+	public boolean worldToCanvas(int[] x, int[] y, int count, int zOffset, int[] canvasX, int[] canvasY)
+	{
+		boolean projected = true;
+		for (int i = 0; i < count; ++i)
+		{
+			projected &= project(x[i], y[i], getTileHeight(x[i], y[i]), zOffset, canvasX, canvasY, i);
+		}
+		return projected;
+	}
+
+	/**
+	 * Project the corners of a tile onto the canvas, as
+	 * {@link Perspective#getCanvasTilePoly(Client, Point)} does.
+	 *
+	 * @param x local x coordinate of the center of the tile
+	 * @param y local y coordinate of the center of the tile
+	 * @param polyX receives the x coordinates of the four corners from offset
+	 * @param polyY receives the y coordinates of the four corners from offset
+	 * @return whether all corners were projected
+	 */
+	public boolean getCanvasTilePoly(int x, int y, int[] polyX, int[] polyY, int offset)
+	{
+		int halfTile = LOCAL_TILE_SIZE / 2;
+		int x1 = x - halfTile, x2 = x + halfTile;
+		int y1 = y - halfTile, y2 = y + halfTile;
+
+		// evaluated in full, so every corner is written
+		return project(x1, y1, getTileHeight(x1, y1), 0, polyX, polyY, offset)
+			& project(x1, y2, getTileHeight(x1, y2), 0, polyX, polyY, offset + 1)
+			& project(x2, y2, getTileHeight(x2, y2), 0, polyX, polyY, offset + 2)
+			& project(x2, y1, getTileHeight(x2, y1), 0, polyX, polyY, offset + 3);
+	}
+
+	/**
+	 * Project local coordinates onto the minimap, as
+	 * {@link Perspective#worldToMiniMap(Client, int, int, int)} does.
+	 * Points further than the distance are written as -1.
+	 *
+	 * @return whether all points were within the distance
+	 */
+	public boolean worldToMiniMap(int[] x, int[] y, int count, int distance, int[] mapX, int[] mapY)
+	{
+		boolean projected = true;
+		for (int i = 0; i < count; ++i)
+		{
+			if (localLocation == null)
+			{
+				mapX[i] = mapY[i] = -1;
+				projected = false;
+				continue;
+			}
+
+			int dx = x[i] / 32 - localLocation.getX() / 32;
+			int dy = y[i] / 32 - localLocation.getY() / 32;
+
+			if (dx * dx + dy * dy >= distance)
+			{
+				mapX[i] = mapY[i] = -1;
+				projected = false;
+				continue;
+			}
+
+			mapX[i] = mapCenterX + (dy * mapSin + mapCos * dx >> 16);
+			mapY[i] = mapCenterY + (mapSin * dx - dy * mapCos >> 16);
+		}
+		return projected;
+	}
+
+	private boolean project(int x, int y, int height, int zOffset, int[] canvasX, int[] canvasY, int index)
+	{
+		if (x >= 128 && y >= 128 && x <= 13056 && y <= 13056)
+		{
+			int z = height - plane - cameraZ - zOffset;
+			x -= cameraX;
+			y -= cameraY;
+
+			int rotatedX = yawCos * x + y * yawSin >> 16;
+			y = yawCos * y - yawSin * x >> 16;
+			int rotatedY = pitchCos * z - y * pitchSin >> 16;
+			int depth = z * pitchSin + y * pitchCos >> 16;
+
+			if (depth >= 50)
+			{
+				canvasX[index] = centerX + rotatedX * scale / depth;
+				canvasY[index] = rotatedY * scale / depth + centerY;
+				return true;
+			}
+		}
+
+		canvasX[index] = canvasY[index] = UNPROJECTED;
+		return false;
+	}
+
+	/**
+	 * @see Perspective#getTileHeight(Client, int, int, int)
+	 */
+	private int getTileHeight(int x, int y)
+	{
+		int tileX = x >> 7;
+		int tileY = y >> 7;
+		if (tileX < 0 || tileY < 0 || tileX > 103 || tileY > 103)
+		{
+			return 0;
+		}
+
+		int z = plane;
+		if (plane < 3 && (tileSettings[1][tileX][tileY] & 2) == 2)
+		{
+			z = plane + 1;
+		}
+
+		int[][] heights = tileHeights[z];
+		int offsetX = x & 127;
+		int offsetY = y & 127;
+		if (offsetX == 0 && offsetY == 0)
+		{
+			// corners of tiles need no interpolation
+			return heights[tileX][tileY];
+		}
+
+		int height1 = offsetX * heights[tileX + 1][tileY] + (128 - offsetX) * heights[tileX][tileY] >> 7;
+		int height2 = heights[tileX][tileY + 1] * (128 - offsetX) + offsetX * heights[tileX + 1][tileY + 1] >> 7;
+		return (128 - offsetY) * height1 + offsetY * height2 >> 7;
+	}
+}
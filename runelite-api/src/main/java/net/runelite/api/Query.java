@@ -36,6 +36,11 @@ public abstract class Query<EntityType, QueryType>
 
 	protected abstract EntityType[] result(Client client);
 
+	protected boolean matches(EntityType entity)
+	{
+		return predicate == null || predicate.test(entity);
+	}
+
 	protected Predicate<EntityType> and(Predicate<EntityType> other)
 	{
 		if (predicate == null)
@@ -28,6 +28,11 @@ import java.util.Arrays;
 
 public class Region
 {
+	/**
+	 * number of tiles along each side of the region
+	 */
+	public static final int REGION_SIZE = 104;
+
 	private final Client client;
 	private final net.runelite.rs.api.Region region;
 
@@ -47,4 +52,15 @@ public class Region
 				).toArray(Tile[][]::new)
 			).toArray(Tile[][][]::new);
 	}
+
+	/**
+	 * Get a single tile, without wrapping the whole region
+	 *
+	 * @return the tile, or null if there is no tile there
+	 */
+	public Tile getTile(int plane, int x, int y)
+	{
+		net.runelite.rs.api.Tile tile = region.getTiles()[plane][x][y];
+		return tile != null ? new Tile(client, tile) : null;
+	}
 }
@@ -24,12 +24,17 @@
  */
 package net.runelite.api.queries;
 
+import java.util.List;
 import net.runelite.api.Actor;
 import net.runelite.api.Point;
 import net.runelite.api.Query;
 
 public abstract class ActorQuery<EntityType extends Actor, QueryType> extends Query<EntityType, QueryType>
 {
+	// the last location constraint, used to look up candidates in the index
+	private Point location;
+	private int distance;
+
 	@SuppressWarnings("unchecked")
 	public QueryType nameEquals(String... names)
 	{
@@ -70,6 +75,17 @@ public abstract class ActorQuery<EntityType extends Actor, QueryType> extends Qu
 	public QueryType atLocalLocation(Point location)
 	{
 		predicate = and(actor -> actor.getLocalLocation().equals(location));
+		this.location = location;
+		this.distance = 0;
+		return (QueryType) this;
+	}
+
+	@SuppressWarnings("unchecked")
+	public QueryType isWithinDistance(Point location, int distance)
+	{
+		predicate = and(actor -> actor.getLocalLocation().distanceTo(location) <= distance);
+		this.location = location;
+		this.distance = distance;
 		return (QueryType) this;
 	}
 
@@ -93,4 +109,12 @@ public abstract class ActorQuery<EntityType extends Actor, QueryType> extends Qu
 		predicate = and(a -> a.getInteracting().equals(a));
 		return (QueryType) this;
 	}
+
+	/**
+	 * Get the actors of the index which may match the query
+	 */
+	List<EntityType> getCandidates(SpatialIndex<EntityType> index)
+	{
+		return location != null ? index.getWithin(location, distance) : index.getAll();
+	}
 }
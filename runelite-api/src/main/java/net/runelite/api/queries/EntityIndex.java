@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api.queries;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.runelite.api.Client;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+
+/**
+ * Index of the npcs and players of the client, built once per game
+ * cycle and shared by all queries during it
+ */
+class EntityIndex
+{
+	private static volatile EntityIndex last;
+
+	private final Client client;
+	private final int cycle;
+
+	private final SpatialIndex<NPC> npcs;
+	private final SpatialIndex<Player> players;
+	private Map<Integer, List<NPC>> npcsById;
+
+	private EntityIndex(Client client, int cycle)
+	{
+		this.client = client;
+		this.cycle = cycle;
+		this.npcs = new SpatialIndex<>(client.getNpcs());
+		this.players = new SpatialIndex<>(client.getPlayers());
+	}
+
+	static EntityIndex of(Client client)
+	{
+		int cycle = client.getGameCycle();
+
+		EntityIndex index = last;
+		if (index == null || index.client != client || index.cycle != cycle)
+		{
+			index = new EntityIndex(client, cycle);
+			last = index;
+		}
+		return index;
+	}
+
+	SpatialIndex<NPC> getNpcs()
+	{
+		return npcs;
+	}
+
+	SpatialIndex<Player> getPlayers()
+	{
+		return players;
+	}
+
+	/**
+	 * Get the npcs with the given id. The npcs are grouped by id on the
+	 * first call, so cycles without an id query never look up compositions.
+	 */
+	synchronized List<NPC> getNpcs(int id)
+	{
+		if (npcsById == null)
+		{
+			npcsById = new HashMap<>();
+			for (NPC npc : npcs.getAll())
+			{
+				npcsById.computeIfAbsent(npc.getId(), i -> new ArrayList<>()).add(npc);
+			}
+		}
+
+		return npcsById.getOrDefault(id, Collections.emptyList());
+	}
+}
@@ -24,20 +24,53 @@
  */
 package net.runelite.api.queries;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import net.runelite.api.Client;
 import net.runelite.api.NPC;
 
-import java.util.Arrays;
-import java.util.Objects;
-
 public class NPCQuery extends ActorQuery<NPC, NPCQuery>
 {
+	private int[] ids;
+
+	public NPCQuery idEquals(int... ids)
+	{
+		predicate = and(npc ->
+		{
+			for (int id : ids)
+			{
+				if (npc.getId() == id)
+				{
+					return true;
+				}
+			}
+			return false;
+		});
+		this.ids = ids;
+		return this;
+	}
+
 	@Override
 	protected NPC[] result(Client client)
 	{
-		return Arrays.stream(client.getNpcs())
-				.filter(Objects::nonNull)
-				.filter(predicate)
+		EntityIndex index = EntityIndex.of(client);
+
+		Collection<NPC> candidates;
+		if (ids != null)
+		{
+			candidates = new LinkedHashSet<>();
+			for (int id : ids)
+			{
+				candidates.addAll(index.getNpcs(id));
+			}
+		}
+		else
+		{
+			candidates = getCandidates(index.getNpcs());
+		}
+
+		return candidates.stream()
+				.filter(this::matches)
 				.toArray(NPC[]::new);
 	}
 }
@@ -27,17 +27,13 @@ package net.runelite.api.queries;
 import net.runelite.api.Client;
 import net.runelite.api.Player;
 
-import java.util.Arrays;
-import java.util.Objects;
-
 public class PlayerQuery extends ActorQuery<Player, PlayerQuery>
 {
 	@Override
 	protected Player[] result(Client client)
 	{
-		return Arrays.stream(client.getPlayers())
-				.filter(Objects::nonNull)
-				.filter(predicate)
+		return getCandidates(EntityIndex.of(client).getPlayers()).stream()
+				.filter(this::matches)
 				.toArray(Player[]::new);
 	}
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api.queries;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.runelite.api.Actor;
+import net.runelite.api.Perspective;
+import net.runelite.api.Point;
+import net.runelite.api.Region;
+
+/**
+ * Actors bucketed by their local location, in squares of
+ * {@link #BUCKET_TILES} tiles
+ */
+class SpatialIndex<T extends Actor>
+{
+	private static final int BUCKET_TILES = 8;
+	private static final int BUCKET_SIZE = BUCKET_TILES * Perspective.LOCAL_TILE_SIZE;
+	private static final int BUCKETS = (Region.REGION_SIZE + BUCKET_TILES - 1) / BUCKET_TILES;
+
+	private final List<T> all = new ArrayList<>();
+	private final List<List<T>> buckets = new ArrayList<>(BUCKETS * BUCKETS);
+
+	SpatialIndex(T[] actors)
+	{
+		for (int i = 0; i < BUCKETS * BUCKETS; ++i)
+		{
+			buckets.add(Collections.emptyList());
+		}
+
+		for (T actor : actors)
+		{
+			if (actor == null)
+			{
+				continue;
+			}
+
+			all.add(actor);
+
+			Point location = actor.getLocalLocation();
+			int index = bucket(location.getX()) * BUCKETS + bucket(location.getY());
+
+			List<T> bucket = buckets.get(index);
+			if (bucket.isEmpty())
+			{
+				bucket = new ArrayList<>();
+				buckets.set(index, bucket);
+			}
+			bucket.add(actor);
+		}
+	}
+
+	private static int bucket(int local)
+	{
+		return Math.max(0, Math.min(BUCKETS - 1, local / BUCKET_SIZE));
+	}
+
+	List<T> getAll()
+	{
+		return all;
+	}
+
+	/**
+	 * Find the actors within a distance of a local location
+	 */
+	List<T> getWithin(Point location, int distance)
+	{
+		List<T> result = new ArrayList<>();
+
+		int minX = bucket(location.getX() - distance), maxX = bucket(location.getX() + distance);
+		int minY = bucket(location.getY() - distance), maxY = bucket(location.getY() + distance);
+
+		for (int x = minX; x <= maxX; ++x)
+		{
+			for (int y = minY; y <= maxY; ++y)
+			{
+				for (T actor : buckets.get(x * BUCKETS + y))
+				{
+					if (actor.getLocalLocation().distanceTo(location) <= distance)
+					{
+						result.add(actor);
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+}
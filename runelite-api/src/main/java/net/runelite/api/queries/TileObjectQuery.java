@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api.queries;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.runelite.api.Client;
+import net.runelite.api.Perspective;
+import net.runelite.api.Point;
+import net.runelite.api.Query;
+import net.runelite.api.Region;
+import net.runelite.api.Tile;
+import net.runelite.api.TileObject;
+
+public abstract class TileObjectQuery<EntityType extends TileObject, QueryType> extends Query<EntityType, QueryType>
+{
+	// the last location constraint, used to only visit the tiles near it
+	private Point location;
+	private int distance;
+
+	@SuppressWarnings("unchecked")
+	public QueryType idEquals(int... ids)
+	{
+		predicate = and(object ->
+		{
+			for (int id : ids)
+			{
+				if (object.getId() == id)
+				{
+					return true;
+				}
+			}
+			return false;
+		});
+		return (QueryType) this;
+	}
+
+	@SuppressWarnings("unchecked")
+	public QueryType atLocalLocation(Point location)
+	{
+		predicate = and(object -> object.getLocalLocation().equals(location));
+		this.location = location;
+		this.distance = 0;
+		return (QueryType) this;
+	}
+
+	@SuppressWarnings("unchecked")
+	public QueryType isWithinDistance(Point location, int distance)
+	{
+		predicate = and(object -> object.getLocalLocation().distanceTo(location) <= distance);
+		this.location = location;
+		this.distance = distance;
+		return (QueryType) this;
+	}
+
+	/**
+	 * Add the objects of a tile which this query is for
+	 */
+	protected abstract void addObjects(Tile tile, List<EntityType> objects);
+
+	/**
+	 * Get the matching objects on the current plane, only visiting the
+	 * tiles near the location constraint if there is one
+	 */
+	List<EntityType> getObjects(Client client)
+	{
+		Region region = client.getRegion();
+		int plane = client.getPlane();
+
+		int minX = 0, maxX = Region.REGION_SIZE - 1;
+		int minY = 0, maxY = Region.REGION_SIZE - 1;
+
+		if (location != null)
+		{
+			minX = Math.max(minX, Math.floorDiv(location.getX() - distance, Perspective.LOCAL_TILE_SIZE));
+			maxX = Math.min(maxX, Math.floorDiv(location.getX() + distance, Perspective.LOCAL_TILE_SIZE));
+			minY = Math.max(minY, Math.floorDiv(location.getY() - distance, Perspective.LOCAL_TILE_SIZE));
+			maxY = Math.min(maxY, Math.floorDiv(location.getY() + distance, Perspective.LOCAL_TILE_SIZE));
+		}
+
+		List<EntityType> objects = new ArrayList<>();
+		for (int x = minX; x <= maxX; ++x)
+		{
+			for (int y = minY; y <= maxY; ++y)
+			{
+				Tile tile = region.getTile(plane, x, y);
+				if (tile != null)
+				{
+					addObjects(tile, objects);
+				}
+			}
+		}
+
+		objects.removeIf(object -> !matches(object));
+		return objects;
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api;
+
+import java.util.HashMap;
+import java.util.Map;
+import static net.runelite.api.ProxyFactory.proxy;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EntitySnapshotTest
+{
+	private final Map<String, Object> values = new HashMap<>();
+	private final net.runelite.rs.api.NPC npc1 = proxy(net.runelite.rs.api.NPC.class);
+	private final net.runelite.rs.api.NPC npc2 = proxy(net.runelite.rs.api.NPC.class);
+	private final net.runelite.rs.api.Player player = proxy(net.runelite.rs.api.Player.class);
+
+	private Client client;
+
+	@Before
+	public void before()
+	{
+		values.put("getGameCycle", 1);
+		values.put("getCachedNPCs", new net.runelite.rs.api.NPC[] { npc1, null });
+		values.put("getCachedPlayers", new net.runelite.rs.api.Player[] { null, player });
+		values.put("getLocalPlayer", player);
+
+		client = new Client(proxy(net.runelite.rs.api.Client.class, values));
+	}
+
+	@Test
+	public void testSameCycle()
+	{
+		NPC[] npcs = client.getNpcs();
+		Player[] players = client.getPlayers();
+
+		Assert.assertSame(npc1, npcs[0].getNpc());
+		Assert.assertNull(npcs[1]);
+		Assert.assertSame(players[1], client.getLocalPlayer());
+
+		// changes within a cycle are not seen until the next cycle
+		values.put("getCachedNPCs", new net.runelite.rs.api.NPC[] { npc1, npc2 });
+
+		Assert.assertSame(npcs, client.getNpcs());
+		Assert.assertSame(players, client.getPlayers());
+		Assert.assertNull(client.getNpcs()[1]);
+	}
+
+	@Test
+	public void testCycleChange()
+	{
+		NPC[] npcs = client.getNpcs();
+		Player[] players = client.getPlayers();
+
+		// nothing changed, so the arrays are reused
+		values.put("getGameCycle", 2);
+		values.put("getCachedNPCs", new net.runelite.rs.api.NPC[] { npc1, null });
+
+		Assert.assertSame(npcs, client.getNpcs());
+		Assert.assertSame(players, client.getPlayers());
+
+		// a new npc gets a new array, keeping the wrappers of unchanged npcs
+		values.put("getGameCycle", 3);
+		values.put("getCachedNPCs", new net.runelite.rs.api.NPC[] { npc1, npc2 });
+
+		NPC[] next = client.getNpcs();
+		Assert.assertNotSame(npcs, next);
+		Assert.assertSame(npcs[0], next[0]);
+		Assert.assertSame(npc2, next[1].getNpc());
+		Assert.assertSame(players, client.getPlayers());
+
+		// the local player leaving gets a new array without it
+		values.put("getGameCycle", 4);
+		values.put("getCachedPlayers", new net.runelite.rs.api.Player[] { null, null });
+		values.put("getLocalPlayer", null);
+
+		Assert.assertNotSame(players, client.getPlayers());
+		Assert.assertNull(client.getPlayers()[1]);
+		Assert.assertNull(client.getLocalPlayer());
+	}
+}
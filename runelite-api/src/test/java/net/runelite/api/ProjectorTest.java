@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api;
+
+import java.awt.Canvas;
+import java.awt.Polygon;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static net.runelite.api.ProxyFactory.proxy;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProjectorTest
+{
+	private Client client;
+
+	@Before
+	public void before()
+	{
+		Random random = new Random(42);
+
+		int[][][] tileHeights = new int[4][105][105];
+		for (int x = 0; x < 105; ++x)
+		{
+			for (int y = 0; y < 105; ++y)
+			{
+				tileHeights[0][x][y] = -random.nextInt(400);
+			}
+		}
+
+		Map<String, Object> playerValues = new HashMap<>();
+		playerValues.put("getX", 6464);
+		playerValues.put("getY", 6464);
+		net.runelite.rs.api.Player player = proxy(net.runelite.rs.api.Player.class, playerValues);
+
+		Canvas canvas = new Canvas();
+		canvas.setSize(765, 503);
+
+		Map<String, Object> values = new HashMap<>();
+		values.put("getTileHeights", tileHeights);
+		values.put("getTileSettings", new byte[4][104][104]);
+		values.put("getCameraX", 6000);
+		values.put("getCameraY", 5500);
+		values.put("getCameraZ", -1200);
+		values.put("getCameraPitch", 300);
+		values.put("getCameraYaw", 1500);
+		values.put("getScale", 512);
+		values.put("getCamera2", 512);
+		values.put("getCamera3", 334);
+		values.put("getMapAngle", 700);
+		values.put("getCanvas", canvas);
+		values.put("getLocalPlayer", player);
+		values.put("getCachedPlayers", new net.runelite.rs.api.Player[] { player });
+		values.put("getCachedNPCs", new net.runelite.rs.api.NPC[0]);
+
+		client = new Client(proxy(net.runelite.rs.api.Client.class, values));
+	}
+
+	@Test
+	public void testWorldToCanvas()
+	{
+		Projector projector = new Projector(client);
+
+		int[] x = { 6464, 6000, 7000, 100, 5555 };
+		int[] y = { 6464, 7000, 6000, 6464, 6789 };
+		int[] canvasX = new int[x.length];
+		int[] canvasY = new int[x.length];
+
+		Assert.assertFalse(projector.worldToCanvas(x, y, x.length, 50, canvasX, canvasY));
+
+		for (int i = 0; i < x.length; ++i)
+		{
+			Point point = Perspective.worldToCanvas(client, x[i], y[i], client.getPlane(), 50);
+			if (point == null)
+			{
+				Assert.assertEquals(Projector.UNPROJECTED, canvasX[i]);
+				Assert.assertEquals(Projector.UNPROJECTED, canvasY[i]);
+			}
+			else
+			{
+				Assert.assertEquals(point.getX(), canvasX[i]);
+				Assert.assertEquals(point.getY(), canvasY[i]);
+			}
+		}
+	}
+
+	@Test
+	public void testGetCanvasTilePoly()
+	{
+		Projector projector = new Projector(client);
+
+		int[] polyX = new int[8];
+		int[] polyY = new int[8];
+
+		Assert.assertTrue(projector.getCanvasTilePoly(6464, 6464, polyX, polyY, 4));
+
+		Polygon poly = Perspective.getCanvasTilePoly(client, new Point(6464, 6464));
+		Assert.assertNotNull(poly);
+		for (int i = 0; i < 4; ++i)
+		{
+			Assert.assertEquals(poly.xpoints[i], polyX[4 + i]);
+			Assert.assertEquals(poly.ypoints[i], polyY[4 + i]);
+		}
+	}
+
+	@Test
+	public void testWorldToMiniMap()
+	{
+		Projector projector = new Projector(client);
+
+		int[] x = { 6464, 6800, 9000 };
+		int[] y = { 6600, 6300, 9000 };
+		int[] mapX = new int[x.length];
+		int[] mapY = new int[x.length];
+
+		Assert.assertFalse(projector.worldToMiniMap(x, y, x.length, 6400, mapX, mapY));
+
+		for (int i = 0; i < x.length; ++i)
+		{
+			Point point = Perspective.worldToMiniMap(client, x[i], y[i], 6400);
+			Assert.assertEquals(point.getX(), mapX[i]);
+			Assert.assertEquals(point.getY(), mapY[i]);
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates fixtures of the rs api interfaces for tests
+ */
+public class ProxyFactory
+{
+	/**
+	 * Create an object implementing an rs api interface. Methods return the
+	 * value in values for their name, looked up when they are called, or
+	 * 0, false or null if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T proxy(Class<T> clazz, Map<String, Object> values)
+	{
+		return (T) Proxy.newProxyInstance(ProxyFactory.class.getClassLoader(), new Class<?>[] { clazz },
+			(proxy, method, args) ->
+			{
+				if (values.containsKey(method.getName()))
+				{
+					return values.get(method.getName());
+				}
+				if (method.getReturnType() == int.class)
+				{
+					return 0;
+				}
+				if (method.getReturnType() == boolean.class)
+				{
+					return false;
+				}
+				return null;
+			});
+	}
+
+	public static <T> T proxy(Class<T> clazz)
+	{
+		return proxy(clazz, new HashMap<>());
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api.queries;
+
+import java.util.HashMap;
+import java.util.Map;
+import net.runelite.api.Client;
+import net.runelite.api.GameObject;
+import static net.runelite.api.ProxyFactory.proxy;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GameObjectQueryTest
+{
+	private static net.runelite.rs.api.Tile tile(net.runelite.rs.api.GameObject... objects)
+	{
+		Map<String, Object> values = new HashMap<>();
+		values.put("getObjects", objects);
+		return proxy(net.runelite.rs.api.Tile.class, values);
+	}
+
+	@Test
+	public void testMultiTileObject()
+	{
+		net.runelite.rs.api.GameObject large = proxy(net.runelite.rs.api.GameObject.class);
+		net.runelite.rs.api.GameObject small = proxy(net.runelite.rs.api.GameObject.class);
+
+		// the large object covers 2x2 tiles
+		net.runelite.rs.api.Tile[][][] tiles = new net.runelite.rs.api.Tile[4][104][104];
+		tiles[0][10][10] = tile(large, null);
+		tiles[0][11][10] = tile(large);
+		tiles[0][10][11] = tile(null, large);
+		tiles[0][11][11] = tile(large, small);
+
+		Map<String, Object> regionValues = new HashMap<>();
+		regionValues.put("getTiles", tiles);
+
+		Map<String, Object> values = new HashMap<>();
+		values.put("getRegion", proxy(net.runelite.rs.api.Region.class, regionValues));
+
+		Client client = new Client(proxy(net.runelite.rs.api.Client.class, values));
+
+		GameObject[] objects = client.runQuery(new GameObjectQuery());
+		Assert.assertEquals(2, objects.length);
+		Assert.assertEquals(new GameObject(client, large), objects[0]);
+		Assert.assertEquals(new GameObject(client, small), objects[1]);
+		Assert.assertNotEquals(objects[0], objects[1]);
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.api.queries;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.runelite.api.NPC;
+import net.runelite.api.Point;
+import static net.runelite.api.ProxyFactory.proxy;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SpatialIndexTest
+{
+	private static NPC npc(int x, int y)
+	{
+		Map<String, Object> values = new HashMap<>();
+		values.put("getX", x);
+		values.put("getY", y);
+		return new NPC(null, proxy(net.runelite.rs.api.NPC.class, values));
+	}
+
+	@Test
+	public void testGetWithin()
+	{
+		NPC near = npc(1000, 1000);
+		NPC edge = npc(1000, 1000 + 512);
+		NPC far = npc(5000, 5000);
+		NPC corner = npc(0, 0);
+
+		SpatialIndex<NPC> index = new SpatialIndex<>(new NPC[] { near, null, edge, far, corner });
+
+		Assert.assertEquals(4, index.getAll().size());
+
+		List<NPC> within = index.getWithin(new Point(1000, 1000), 512);
+		Assert.assertEquals(2, within.size());
+		Assert.assertTrue(within.contains(near));
+		Assert.assertTrue(within.contains(edge));
+
+		within = index.getWithin(new Point(-100, -100), 200);
+		Assert.assertEquals(1, within.size());
+		Assert.assertSame(corner, within.get(0));
+
+		Assert.assertTrue(index.getWithin(new Point(20000, 20000), 128).isEmpty());
+	}
+}
@@ -102,10 +102,11 @@ public class RuneLite
 
 		eventBus.register(menuManager);
 
+		// created first, so it is refreshed as plugins start
+		renderer = new OverlayRenderer();
+
 		pluginManager = new PluginManager(this);
 		pluginManager.loadAll();
-
-		renderer = new OverlayRenderer();
 	}
 
 	private void setupTrayIcon()
@@ -29,6 +29,7 @@ import com.google.common.util.concurrent.Service;
 import com.google.common.util.concurrent.ServiceManager;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import net.runelite.client.RuneLite;
@@ -45,6 +46,7 @@ import net.runelite.client.plugins.pestcontrol.PestControl;
 import net.runelite.client.plugins.runecraft.Runecraft;
 import net.runelite.client.plugins.xtea.Xtea;
 import net.runelite.client.plugins.zulrah.Zulrah;
+import net.runelite.client.ui.overlay.OverlayRenderer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -92,6 +94,7 @@ public class PluginManager
 				{
 					logger.debug("Plugin {} is now running", plugin);
 					runelite.getEventBus().register(plugin);
+					refreshOverlays();
 				}
 
 				@Override
@@ -99,6 +102,7 @@ public class PluginManager
 				{
 					logger.debug("Plugin {} is stopping", plugin);
 					runelite.getEventBus().unregister(plugin);
+					refreshOverlays();
 				}
 
 				@Override
@@ -109,6 +113,7 @@ public class PluginManager
 					if (from == Service.State.RUNNING)
 					{
 						runelite.getEventBus().unregister(plugin);
+						refreshOverlays();
 					}
 				}
 			};
@@ -122,8 +127,22 @@ public class PluginManager
 		manager.startAsync();
 	}
 
+	private void refreshOverlays()
+	{
+		OverlayRenderer renderer = runelite.getRenderer();
+		if (renderer != null)
+		{
+			renderer.refresh();
+		}
+	}
+
 	public Collection<Plugin> getPlugins()
 	{
+		if (manager == null)
+		{
+			return Collections.emptyList();
+		}
+
 		return manager.servicesByState().get(Service.State.RUNNING)
 			.stream()
 			.map(s -> (Plugin) s)
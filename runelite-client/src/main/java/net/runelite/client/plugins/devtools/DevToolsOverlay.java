@@ -31,7 +31,6 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
-import java.awt.Polygon;
 import java.awt.Rectangle;
 
 import java.awt.geom.Rectangle2D;
@@ -47,10 +46,14 @@ import net.runelite.api.NPC;
 import net.runelite.api.Node;
 import net.runelite.api.Player;
 import net.runelite.api.Point;
-import net.runelite.api.Region;
-import net.runelite.api.Tile;
+import net.runelite.api.Projector;
 import net.runelite.api.TileObject;
 import net.runelite.api.WallObject;
+import net.runelite.api.queries.DecorativeObjectQuery;
+import net.runelite.api.queries.GameObjectQuery;
+import net.runelite.api.queries.GroundObjectQuery;
+import net.runelite.api.queries.ItemLayerQuery;
+import net.runelite.api.queries.WallObjectQuery;
 import net.runelite.api.widgets.Widget;
 import net.runelite.api.widgets.WidgetInfo;
 import net.runelite.api.widgets.WidgetItem;
@@ -73,12 +76,16 @@ public class DevToolsOverlay extends Overlay
 	private static final Color PURPLE = new Color(170, 0, 255);
 	private static final Color GRAY = new Color(158, 158, 158);
 
-	private static final int REGION_SIZE = 104;
 	private static final int MAX_DISTANCE = 2400;
 
 	private final DevTools plugin;
 	private final Client client = RuneLite.getClient();
 
+	// camera of the frame being rendered, and the tile polygon buffers
+	private Projector projector;
+	private final int[] polyX = new int[4];
+	private final int[] polyY = new int[4];
+
 	public DevToolsOverlay(DevTools plugin)
 	{
 		super(OverlayPosition.DYNAMIC);
@@ -99,6 +106,8 @@ public class DevToolsOverlay extends Overlay
 			graphics.setFont(font);
 		}
 
+		projector = new Projector(client);
+
 		if (plugin.isTogglePlayers())
 		{
 			renderPlayers(graphics);
@@ -126,14 +135,14 @@ public class DevToolsOverlay extends Overlay
 
 	private void renderActorOverlay(Graphics2D graphics, Actor actor, String text, Color color)
 	{
-		Polygon poly = actor.getCanvasTilePoly();
-		if (poly != null)
+		Point localLocation = actor.getLocalLocation();
+		if (projector.getCanvasTilePoly(localLocation.getX(), localLocation.getY(), polyX, polyY, 0))
 		{
 			graphics.setColor(color);
 			graphics.setStroke(new BasicStroke(2));
-			graphics.drawPolygon(poly);
+			graphics.drawPolygon(polyX, polyY, 4);
 			graphics.setColor(new Color(0, 0, 0, 50));
-			graphics.fillPolygon(poly);
+			graphics.fillPolygon(polyX, polyY, 4);
 		}
 
 		Point minimapLocation = actor.getMinimapLocation();
@@ -162,14 +171,14 @@ public class DevToolsOverlay extends Overlay
 
 	private void renderTileOverlay(Graphics2D graphics, TileObject tileObject, String text, Color color)
 	{
-		Polygon poly = tileObject.getCanvasTilePoly();
-		if (poly != null)
+		Point localLocation = tileObject.getLocalLocation();
+		if (projector.getCanvasTilePoly(localLocation.getX(), localLocation.getY(), polyX, polyY, 0))
 		{
 			graphics.setColor(color);
 			graphics.setStroke(new BasicStroke(2));
-			graphics.drawPolygon(poly);
+			graphics.drawPolygon(polyX, polyY, 4);
 			graphics.setColor(new Color(0, 0, 0, 50));
-			graphics.fillPolygon(poly);
+			graphics.fillPolygon(polyX, polyY, 4);
 		}
 
 		Point minimapLocation = tileObject.getMinimapLocation();
@@ -245,124 +254,67 @@ public class DevToolsOverlay extends Overlay
 
 	private void renderTileObjects(Graphics2D graphics)
 	{
-		Region region = client.getRegion();
-		Tile[][][] tiles = region.getTiles();
-
-		int z = client.getPlane();
-
-		for (int x = 0; x < REGION_SIZE; ++x)
+		Player player = client.getLocalPlayer();
+		if (player == null)
 		{
-			for (int y = 0; y < REGION_SIZE; ++y)
-			{
-				Tile tile = tiles[z][x][y];
-
-				if (tile == null)
-				{
-					continue;
-				}
-
-				Player player = client.getLocalPlayer();
-				if (player == null)
-				{
-					continue;
-				}
-
-				if (plugin.isToggleGroundItems())
-				{
-					renderGroundItems(graphics, tile, player);
-				}
-
-				if (plugin.isToggleGroundObjects())
-				{
-					renderGroundObject(graphics, tile, player);
-				}
-
-				if (plugin.isToggleGameObjects())
-				{
-					renderGameObjects(graphics, tile, player);
-				}
+			return;
+		}
 
-				if (plugin.isToggleWalls())
-				{
-					renderWallObject(graphics, tile, player);
-				}
+		Point location = player.getLocalLocation();
 
-				if (plugin.isToggleDecor())
-				{
-					renderDecorObject(graphics, tile, player);
-				}
-			}
+		if (plugin.isToggleGroundItems())
+		{
+			renderGroundItems(graphics, location);
 		}
-	}
 
-	private void renderGroundItems(Graphics2D graphics, Tile tile, Player player)
-	{
-		ItemLayer itemLayer = tile.getItemLayer();
-		if (itemLayer != null)
+		if (plugin.isToggleGroundObjects())
 		{
-			if (player.getLocalLocation().distanceTo(itemLayer.getLocalLocation()) <= MAX_DISTANCE)
+			GroundObject[] groundObjects = client.runQuery(new GroundObjectQuery().isWithinDistance(location, MAX_DISTANCE));
+			for (GroundObject groundObject : groundObjects)
 			{
-				Node current = itemLayer.getBottom();
-				while (current instanceof Item)
-				{
-					Item item = (Item) current;
-					renderTileOverlay(graphics, itemLayer, "ID: " + item.getId() + " Qty:" + item.getQuantity(), RED);
-					current = current.getNext();
-				}
+				renderTileOverlay(graphics, groundObject, "ID: " + groundObject.getId(), PURPLE);
 			}
 		}
-	}
 
-	private void renderGameObjects(Graphics2D graphics, Tile tile, Player player)
-	{
-		GameObject[] gameObjects = tile.getGameObjects();
-		if (gameObjects != null)
+		if (plugin.isToggleGameObjects())
 		{
+			GameObject[] gameObjects = client.runQuery(new GameObjectQuery().isWithinDistance(location, MAX_DISTANCE));
 			for (GameObject gameObject : gameObjects)
 			{
-				if (gameObject != null)
-				{
-					if (player.getLocalLocation().distanceTo(gameObject.getLocalLocation()) <= MAX_DISTANCE)
-					{
-						renderTileOverlay(graphics, gameObject, "ID: " + gameObject.getId(), GREEN);
-					}
-				}
+				renderTileOverlay(graphics, gameObject, "ID: " + gameObject.getId(), GREEN);
 			}
 		}
-	}
 
-	private void renderGroundObject(Graphics2D graphics, Tile tile, Player player)
-	{
-		GroundObject groundObject = tile.getGroundObject();
-		if (groundObject != null)
+		if (plugin.isToggleWalls())
 		{
-			if (player.getLocalLocation().distanceTo(groundObject.getLocalLocation()) <= MAX_DISTANCE)
+			WallObject[] wallObjects = client.runQuery(new WallObjectQuery().isWithinDistance(location, MAX_DISTANCE));
+			for (WallObject wallObject : wallObjects)
 			{
-				renderTileOverlay(graphics, groundObject, "ID: " + groundObject.getId(), PURPLE);
+				renderTileOverlay(graphics, wallObject, "ID: " + wallObject.getId(), GRAY);
 			}
 		}
-	}
 
-	private void renderWallObject(Graphics2D graphics, Tile tile, Player player)
-	{
-		WallObject wallObject = tile.getWallObject();
-		if (wallObject != null)
+		if (plugin.isToggleDecor())
 		{
-			if (player.getLocalLocation().distanceTo(wallObject.getLocalLocation()) <= MAX_DISTANCE)
+			DecorativeObject[] decorObjects = client.runQuery(new DecorativeObjectQuery().isWithinDistance(location, MAX_DISTANCE));
+			for (DecorativeObject decorObject : decorObjects)
 			{
-				renderTileOverlay(graphics, wallObject, "ID: " + wallObject.getId(), GRAY);
+				renderTileOverlay(graphics, decorObject, "ID: " + decorObject.getId(), DEEP_PURPLE);
 			}
 		}
 	}
 
-	private void renderDecorObject(Graphics2D graphics, Tile tile, Player player)
+	private void renderGroundItems(Graphics2D graphics, Point location)
 	{
-		DecorativeObject decorObject = tile.getDecorativeObject();
-		if (decorObject != null)
+		ItemLayer[] itemLayers = client.runQuery(new ItemLayerQuery().isWithinDistance(location, MAX_DISTANCE));
+		for (ItemLayer itemLayer : itemLayers)
 		{
-			if (player.getLocalLocation().distanceTo(decorObject.getLocalLocation()) <= MAX_DISTANCE)
+			Node current = itemLayer.getBottom();
+			while (current instanceof Item)
 			{
-				renderTileOverlay(graphics, decorObject, "ID: " + decorObject.getId(), DEEP_PURPLE);
+				Item item = (Item) current;
+				renderTileOverlay(graphics, itemLayer, "ID: " + item.getId() + " Qty:" + item.getQuantity(), RED);
+				current = current.getNext();
 			}
 		}
 	}
@@ -29,11 +29,11 @@ import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
-import java.awt.Polygon;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
 import net.runelite.api.Perspective;
 import net.runelite.api.Point;
+import net.runelite.api.Projector;
 import net.runelite.client.RuneLite;
 import net.runelite.client.plugins.zulrah.patterns.ZulrahPattern;
 import net.runelite.client.ui.overlay.Overlay;
@@ -44,6 +44,9 @@ public class TileOverlay extends Overlay
 	private final Zulrah plugin;
 	private final Client client = RuneLite.getClient();
 
+	private final int[] polyX = new int[4];
+	private final int[] polyY = new int[4];
+
 	public TileOverlay(Zulrah plugin)
 	{
 		super(OverlayPosition.DYNAMIC);
@@ -82,7 +85,9 @@ public class TileOverlay extends Overlay
 			return null;
 		}
 
-		renderTileOverlay(graphics, current.getStandLoc(startLocationWorld), Color.GREEN);
+		Projector projector = new Projector(client);
+
+		renderTileOverlay(graphics, projector, current.getStandLoc(startLocationWorld), Color.GREEN);
 
 		ZulrahInstance next = pattern.get(stage + 1);
 		if (next == null)
@@ -111,26 +116,26 @@ public class TileOverlay extends Overlay
 			graphics.drawString(str, location.getX(), location.getY());
 		}
 
-		renderTileOverlay(graphics, next.getStandLoc(startLocationWorld), new Color(255, 0, 0, 150));
+		renderTileOverlay(graphics, projector, next.getStandLoc(startLocationWorld), new Color(255, 0, 0, 150));
 
 		return null;
 	}
 
-	private void renderTileOverlay(Graphics2D graphics, Point tile, Color outlineColor)
+	private void renderTileOverlay(Graphics2D graphics, Projector projector, Point tile, Color outlineColor)
 	{
 		Point localTile = Perspective.worldToLocal(client, tile);
 
 		//to make the centre of the tile on the point, rather than the tile the point resides in
-		localTile = new Point(localTile.getX() + Perspective.LOCAL_TILE_SIZE / 2, localTile.getY() + Perspective.LOCAL_TILE_SIZE / 2);
-		
-		Polygon poly = Perspective.getCanvasTilePoly(client, localTile);
-		if (poly != null)
+		int x = localTile.getX() + Perspective.LOCAL_TILE_SIZE / 2;
+		int y = localTile.getY() + Perspective.LOCAL_TILE_SIZE / 2;
+
+		if (projector.getCanvasTilePoly(x, y, polyX, polyY, 0))
 		{
 			graphics.setColor(outlineColor);
 			graphics.setStroke(new BasicStroke(2));
-			graphics.drawPolygon(poly);
+			graphics.drawPolygon(polyX, polyY, 4);
 			graphics.setColor(new Color(0, 0, 0, 50));
-			graphics.fillPolygon(poly);
+			graphics.fillPolygon(polyX, polyY, 4);
 		}
 	}
 
@@ -25,28 +25,25 @@
 package net.runelite.client.ui.overlay;
 
 import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.List;
 
 public class DynamicRenderer implements Renderer
 {
-	private final List<Overlay> overlays = new ArrayList<>();
+	private Overlay[] overlays = new Overlay[0];
 
-	public void add(Overlay overlay)
+	@Override
+	public void setOverlays(Overlay[] overlays)
 	{
-		overlays.add(overlay);
+		this.overlays = overlays;
 	}
 
 	@Override
-	public void render(BufferedImage clientBuffer)
+	public void render(Graphics2D graphics, int width, int height)
 	{
 		for (Overlay overlay : overlays)
 		{
-			Graphics2D graphics = clientBuffer.createGraphics();
-			Renderer.setAntiAliasing(graphics);
-			overlay.render(graphics);
-			graphics.dispose();
+			Graphics2D overlayGraphics = (Graphics2D) graphics.create();
+			overlay.render(overlayGraphics);
+			overlayGraphics.dispose();
 		}
 	}
 
@@ -24,40 +24,143 @@
  */
 package net.runelite.client.ui.overlay;
 
-import java.awt.image.BufferedImage;
-
+import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
 import net.runelite.client.RuneLite;
 import net.runelite.client.plugins.Plugin;
+import net.runelite.client.plugins.PluginManager;
 
 public class OverlayRenderer
 {
-	public void render(BufferedImage clientBuffer)
+	private static final Comparator<Overlay> PRIORITY = (o1, o2) -> o2.getPriority().compareTo(o1.getPriority());
+
+	private final Supplier<Collection<Plugin>> plugins; // running plugins, or null if they aren't loaded yet
+	private final Renderer tdl;
+	private final Renderer tdr;
+	private final Renderer dr;
+
+	private volatile boolean dirty = true;
+
+	// overlays of running plugins, and their position and priority when they were sorted
+	private Overlay[] overlays = new Overlay[0];
+	private OverlayPosition[] positions = new OverlayPosition[0];
+	private OverlayPriority[] priorities = new OverlayPriority[0];
+
+	public OverlayRenderer()
+	{
+		this(OverlayRenderer::getPlugins, new TopDownRendererLeft(), new TopDownRendererRight(), new DynamicRenderer());
+	}
+
+	OverlayRenderer(Supplier<Collection<Plugin>> plugins, Renderer tdl, Renderer tdr, Renderer dr)
+	{
+		this.plugins = plugins;
+		this.tdl = tdl;
+		this.tdr = tdr;
+		this.dr = dr;
+	}
+
+	private static Collection<Plugin> getPlugins()
+	{
+		PluginManager pluginManager = RuneLite.getRunelite().getPluginManager();
+		return pluginManager != null ? pluginManager.getPlugins() : null;
+	}
+
+	/**
+	 * Rebuild the overlays before the next frame. This is called when
+	 * plugins start or stop, changes to the position or priority of
+	 * overlays are picked up without it.
+	 */
+	public void refresh()
+	{
+		dirty = true;
+	}
+
+	/**
+	 * Render the overlays onto the given graphics. The graphics is not
+	 * modified, other than by setting anti aliasing.
+	 */
+	public void render(Graphics2D graphics, int width, int height)
+	{
+		if (dirty || isModified())
+		{
+			rebuild();
+		}
+
+		Renderer.setAntiAliasing(graphics);
+
+		tdl.render(graphics, width, height);
+		tdr.render(graphics, width, height);
+		dr.render(graphics, width, height);
+	}
+
+	private boolean isModified()
+	{
+		for (int i = 0; i < overlays.length; ++i)
+		{
+			Overlay overlay = overlays[i];
+			if (overlay.getPosition() != positions[i] || overlay.getPriority() != priorities[i])
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void rebuild()
 	{
-		TopDownRendererLeft tdl = new TopDownRendererLeft();
-		TopDownRendererRight tdr = new TopDownRendererRight();
-		DynamicRenderer dr = new DynamicRenderer();
+		Collection<Plugin> running = plugins.get();
+		if (running == null)
+		{
+			return;
+		}
+
+		// cleared first so a refresh during the rebuild is not lost
+		dirty = false;
+
+		List<Overlay> all = new ArrayList<>();
+		List<Overlay> topLeft = new ArrayList<>();
+		List<Overlay> topRight = new ArrayList<>();
+		List<Overlay> dynamic = new ArrayList<>();
 
-		for (Plugin plugin : RuneLite.getRunelite().getPluginManager().getPlugins())
+		for (Plugin plugin : running)
 		{
 			for (Overlay overlay : plugin.getOverlays())
 			{
+				all.add(overlay);
+
 				switch (overlay.getPosition())
 				{
 					case TOP_RIGHT:
-						tdr.add(overlay);
+						topRight.add(overlay);
 						break;
 					case TOP_LEFT:
-						tdl.add(overlay);
+						topLeft.add(overlay);
 						break;
 					case DYNAMIC:
-						dr.add(overlay);
+						dynamic.add(overlay);
 						break;
 				}
 			}
 		}
 
-		tdl.render(clientBuffer);
-		tdr.render(clientBuffer);
-		dr.render(clientBuffer);
+		topLeft.sort(PRIORITY);
+		topRight.sort(PRIORITY);
+
+		tdl.setOverlays(topLeft.toArray(new Overlay[topLeft.size()]));
+		tdr.setOverlays(topRight.toArray(new Overlay[topRight.size()]));
+		dr.setOverlays(dynamic.toArray(new Overlay[dynamic.size()]));
+
+		overlays = all.toArray(new Overlay[all.size()]);
+		positions = new OverlayPosition[overlays.length];
+		priorities = new OverlayPriority[overlays.length];
+		for (int i = 0; i < overlays.length; ++i)
+		{
+			positions[i] = overlays[i].getPosition();
+			priorities[i] = overlays[i].getPriority();
+		}
 	}
 }
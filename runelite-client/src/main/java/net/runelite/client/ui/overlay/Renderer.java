@@ -26,11 +26,22 @@ package net.runelite.client.ui.overlay;
 
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
-import java.awt.image.BufferedImage;
 
 public interface Renderer
 {
-	void render(BufferedImage clientBuffer);
+	/**
+	 * Set the overlays to render, in the order they are rendered
+	 */
+	void setOverlays(Overlay[] overlays);
+
+	/**
+	 * Render the overlays onto the client buffer
+	 *
+	 * @param graphics graphics of the client buffer, which must not be modified
+	 * @param width width of the client buffer
+	 * @param height height of the client buffer
+	 */
+	void render(Graphics2D graphics, int width, int height);
 
 	static void setAntiAliasing(Graphics2D graphics)
 	{
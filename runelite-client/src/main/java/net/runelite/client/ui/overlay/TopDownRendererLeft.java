@@ -27,9 +27,6 @@ package net.runelite.client.ui.overlay;
 
 import java.awt.Dimension;
 import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.List;
 
 public class TopDownRendererLeft implements Renderer
 {
@@ -37,26 +34,29 @@ public class TopDownRendererLeft implements Renderer
 	private static final int BORDER_LEFT = 10;
 	private static final int PADDING = 10;
 
-	private final List<Overlay> overlays = new ArrayList<>();
+	private Overlay[] overlays = new Overlay[0];
 
-	public void add(Overlay overlay)
+	@Override
+	public void setOverlays(Overlay[] overlays)
 	{
-		overlays.add(overlay);
+		this.overlays = overlays;
 	}
 
 	@Override
-	public void render(BufferedImage clientBuffer)
+	public void render(Graphics2D graphics, int width, int height)
 	{
-		overlays.sort((o1, o2) -> o2.getPriority().compareTo(o1.getPriority()));
 		int y = BORDER_TOP;
 
 		for (Overlay overlay : overlays)
 		{
-			BufferedImage image = clientBuffer.getSubimage(BORDER_LEFT, y, clientBuffer.getWidth() - BORDER_LEFT, clientBuffer.getHeight() - y);
-			Graphics2D graphics = image.createGraphics();
-			Renderer.setAntiAliasing(graphics);
-			Dimension dimension = overlay.render(graphics);
-			graphics.dispose();
+			if (y >= height)
+			{
+				break;
+			}
+
+			Graphics2D overlayGraphics = (Graphics2D) graphics.create(BORDER_LEFT, y, width - BORDER_LEFT, height - y);
+			Dimension dimension = overlay.render(overlayGraphics);
+			overlayGraphics.dispose();
 
 			if (dimension == null)
 				continue;
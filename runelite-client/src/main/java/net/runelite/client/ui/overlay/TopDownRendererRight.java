@@ -24,11 +24,11 @@
  */
 package net.runelite.client.ui.overlay;
 
+import java.awt.AlphaComposite;
+import java.awt.Composite;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
-import java.util.List;
 import net.runelite.api.Client;
 import net.runelite.client.RuneLite;
 
@@ -38,44 +38,70 @@ public class TopDownRendererRight implements Renderer
 	private static final int BORDER_RIGHT = 10;
 	private static final int PADDING = 10;
 
-	private final List<Overlay> overlays = new ArrayList<>();
+	private Overlay[] overlays = new Overlay[0];
 
-	public void add(Overlay overlay)
+	/**
+	 * overlays are rendered here first to find their width, and the
+	 * whole image is cleared again after each overlay, since nothing
+	 * stops an overlay drawing outside of the dimension it returns
+	 */
+	private BufferedImage image;
+	private Graphics2D imageGraphics;
+
+	@Override
+	public void setOverlays(Overlay[] overlays)
 	{
-		overlays.add(overlay);
+		this.overlays = overlays;
 	}
 
 	@Override
-	public void render(BufferedImage clientBuffer)
+	public void render(Graphics2D graphics, int width, int height)
 	{
 		Client client = RuneLite.getClient();
-		overlays.sort((o1, o2) -> o2.getPriority().compareTo(o1.getPriority()));
 
 		int y = BORDER_TOP;
 		int clientWidth = client.getClientWidth();
 		int clientHeight = client.getClientHeight();
 
+		if (image == null || image.getWidth() != clientWidth || image.getHeight() != clientHeight)
+		{
+			if (imageGraphics != null)
+			{
+				imageGraphics.dispose();
+			}
+
+			image = new BufferedImage(clientWidth, clientHeight, BufferedImage.TYPE_INT_ARGB);
+			imageGraphics = image.createGraphics();
+			Renderer.setAntiAliasing(imageGraphics);
+		}
+
 		for (Overlay overlay : overlays)
 		{
-			BufferedImage image = new BufferedImage(clientWidth, clientHeight, BufferedImage.TYPE_INT_ARGB);
-			Graphics2D graphics = image.createGraphics();
-			Renderer.setAntiAliasing(graphics);
-			Dimension dimension = overlay.render(graphics);
-			graphics.dispose();
+			Graphics2D overlayGraphics = (Graphics2D) imageGraphics.create();
+			Dimension dimension = overlay.render(overlayGraphics);
+			overlayGraphics.dispose();
 
-			if (dimension == null)
+			if (dimension != null)
 			{
-				continue;
-			}
+				int overlayWidth = (int) dimension.getWidth();
+				int overlayHeight = (int) dimension.getHeight();
+				int x = clientWidth - BORDER_RIGHT - overlayWidth;
 
-			image = image.getSubimage(0, 0, (int) dimension.getWidth(), (int) dimension.getHeight());
+				graphics.drawImage(image, x, y, x + overlayWidth, y + overlayHeight, 0, 0, overlayWidth, overlayHeight, null);
 
-			graphics = clientBuffer.createGraphics();
-			graphics.drawImage(image, clientWidth - BORDER_RIGHT - (int) dimension.getWidth(), y, null);
-			graphics.dispose();
+				y += dimension.getHeight() + PADDING;
+			}
 
-			y += dimension.getHeight() + PADDING;
+			clear();
 		}
 	}
 
+	private void clear()
+	{
+		Composite composite = imageGraphics.getComposite();
+		imageGraphics.setComposite(AlphaComposite.Clear);
+		imageGraphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+		imageGraphics.setComposite(composite);
+	}
+
 }
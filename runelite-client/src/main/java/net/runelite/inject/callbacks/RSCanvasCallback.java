@@ -27,8 +27,9 @@ package net.runelite.inject.callbacks;
 import java.awt.Canvas;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Image;
+import java.awt.GraphicsConfiguration;
 import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
 import net.runelite.client.RuneLite;
 import net.runelite.client.ui.overlay.OverlayRenderer;
 import org.slf4j.Logger;
@@ -40,21 +41,107 @@ public class RSCanvasCallback
 
 	private static final int WIDTH = 765, HEIGHT = 503;
 
-	private BufferedImage clientBuffer = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
 	private BufferedImage gameBuffer = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
 
+	/**
+	 * accelerated back buffer the game frame and overlays are composited
+	 * on, or null if the canvas can't create one
+	 */
+	private VolatileImage backBuffer;
+
+	/**
+	 * back buffer used when volatile images are not available
+	 */
+	private BufferedImage clientBuffer;
+
 	public Graphics getGraphics(Canvas canvas, Graphics superGraphics)
 	{
-		if (canvas.getHeight() != clientBuffer.getHeight() || canvas.getWidth() != clientBuffer.getWidth())
+		int width = canvas.getWidth();
+		int height = canvas.getHeight();
+
+		if (width != gameBuffer.getWidth() || height != gameBuffer.getHeight())
 		{
-			clientBuffer = resize(clientBuffer, canvas.getWidth(), canvas.getHeight());
-			gameBuffer = resize(gameBuffer, canvas.getWidth(), canvas.getHeight());
+			// the game redraws the whole frame, so there is nothing worth keeping
+			gameBuffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			releaseBackBuffer();
 		}
 
-		Graphics clientGraphics = clientBuffer.getGraphics();
-		clientGraphics.drawImage(gameBuffer, 0, 0, null);
-		clientGraphics.dispose();
+		if (!renderVolatile(canvas, superGraphics, width, height))
+		{
+			renderBuffered(superGraphics, width, height);
+		}
 
+		return gameBuffer.getGraphics();
+	}
+
+	/**
+	 * Composite onto the volatile back buffer, so the game frame is only
+	 * copied from system memory once
+	 *
+	 * @return false if a volatile image can't be used
+	 */
+	private boolean renderVolatile(Canvas canvas, Graphics superGraphics, int width, int height)
+	{
+		GraphicsConfiguration gc = canvas.getGraphicsConfiguration();
+		if (gc == null)
+		{
+			return false;
+		}
+
+		do
+		{
+			if (backBuffer == null || backBuffer.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE)
+			{
+				releaseBackBuffer();
+
+				backBuffer = canvas.createVolatileImage(width, height);
+				if (backBuffer == null)
+				{
+					return false;
+				}
+			}
+
+			Graphics2D graphics = backBuffer.createGraphics();
+			try
+			{
+				graphics.drawImage(gameBuffer, 0, 0, null);
+				renderOverlays(graphics, width, height);
+			}
+			finally
+			{
+				graphics.dispose();
+			}
+
+			superGraphics.drawImage(backBuffer, 0, 0, null);
+		}
+		while (backBuffer.contentsLost());
+
+		return true;
+	}
+
+	private void renderBuffered(Graphics superGraphics, int width, int height)
+	{
+		if (clientBuffer == null || clientBuffer.getWidth() != width || clientBuffer.getHeight() != height)
+		{
+			clientBuffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		}
+
+		Graphics2D graphics = clientBuffer.createGraphics();
+		try
+		{
+			graphics.drawImage(gameBuffer, 0, 0, null);
+			renderOverlays(graphics, width, height);
+		}
+		finally
+		{
+			graphics.dispose();
+		}
+
+		superGraphics.drawImage(clientBuffer, 0, 0, null);
+	}
+
+	private void renderOverlays(Graphics2D graphics, int width, int height)
+	{
 		RuneLite runelite = RuneLite.getRunelite();
 		if (runelite != null)
 		{
@@ -63,7 +150,7 @@ public class RSCanvasCallback
 			{
 				try
 				{
-					renderer.render(clientBuffer);
+					renderer.render(graphics, width, height);
 				}
 				catch (Exception ex)
 				{
@@ -71,21 +158,14 @@ public class RSCanvasCallback
 				}
 			}
 		}
-
-		superGraphics.drawImage(clientBuffer, 0, 0, null);
-
-		return gameBuffer.getGraphics();
 	}
 
-	private static BufferedImage resize(BufferedImage img, int newWidth, int newHeight)
+	private void releaseBackBuffer()
 	{
-		Image tmp = img.getScaledInstance(newWidth, newHeight, Image.SCALE_FAST);
-		BufferedImage bufferedImage = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
-
-		Graphics2D graphics = bufferedImage.createGraphics();
-		graphics.drawImage(tmp, 0, 0, null);
-		graphics.dispose();
-
-		return bufferedImage;
+		if (backBuffer != null)
+		{
+			backBuffer.flush();
+			backBuffer = null;
+		}
 	}
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.ui.overlay;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import net.runelite.client.plugins.Plugin;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OverlayRendererTest
+{
+	private final List<Plugin> plugins = new ArrayList<>();
+	private final TestRenderer tdl = new TestRenderer();
+	private final TestRenderer tdr = new TestRenderer();
+	private final TestRenderer dr = new TestRenderer();
+
+	private OverlayRenderer renderer;
+	private BufferedImage image;
+	private Graphics2D graphics;
+
+	@Before
+	public void before()
+	{
+		renderer = new OverlayRenderer(() -> plugins, tdl, tdr, dr);
+		image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+		graphics = image.createGraphics();
+	}
+
+	@After
+	public void after()
+	{
+		graphics.dispose();
+	}
+
+	@Test
+	public void testSortOrder()
+	{
+		Overlay low = new TestOverlay(OverlayPosition.TOP_LEFT, OverlayPriority.LOW);
+		Overlay high = new TestOverlay(OverlayPosition.TOP_LEFT, OverlayPriority.HIGH);
+		Overlay med = new TestOverlay(OverlayPosition.TOP_LEFT, OverlayPriority.MED);
+		plugins.add(new TestPlugin(low, high, med));
+
+		render();
+		Assert.assertArrayEquals(new Overlay[] { high, med, low }, tdl.overlays);
+
+		// the sorted overlays are kept across frames
+		render();
+		Assert.assertEquals(1, tdl.sets);
+		Assert.assertEquals(2, tdl.renders);
+
+		// changes to priority and position are picked up without a refresh
+		low.setPriority(OverlayPriority.HIGH);
+		render();
+		Assert.assertEquals(2, tdl.sets);
+		Assert.assertArrayEquals(new Overlay[] { low, high, med }, tdl.overlays);
+
+		high.setPosition(OverlayPosition.TOP_RIGHT);
+		render();
+		Assert.assertArrayEquals(new Overlay[] { low, med }, tdl.overlays);
+		Assert.assertArrayEquals(new Overlay[] { high }, tdr.overlays);
+	}
+
+	@Test
+	public void testRefresh()
+	{
+		Overlay first = new TestOverlay(OverlayPosition.DYNAMIC, OverlayPriority.NONE);
+		Overlay second = new TestOverlay(OverlayPosition.DYNAMIC, OverlayPriority.NONE);
+		plugins.add(new TestPlugin(first));
+
+		render();
+		Assert.assertArrayEquals(new Overlay[] { first }, dr.overlays);
+
+		// a plugin starting is only picked up once the renderer is refreshed
+		Plugin plugin = new TestPlugin(second);
+		plugins.add(plugin);
+		render();
+		Assert.assertArrayEquals(new Overlay[] { first }, dr.overlays);
+
+		renderer.refresh();
+		render();
+		Assert.assertArrayEquals(new Overlay[] { first, second }, dr.overlays);
+
+		plugins.remove(plugin);
+		renderer.refresh();
+		render();
+		Assert.assertArrayEquals(new Overlay[] { first }, dr.overlays);
+	}
+
+	@Test
+	public void testPluginsNotLoaded()
+	{
+		Overlay overlay = new TestOverlay(OverlayPosition.TOP_RIGHT, OverlayPriority.NONE);
+		plugins.add(new TestPlugin(overlay));
+
+		renderer = new OverlayRenderer(() -> null, tdl, tdr, dr);
+		render();
+		Assert.assertEquals(0, tdr.sets);
+		Assert.assertEquals(1, tdr.renders);
+	}
+
+	private void render()
+	{
+		renderer.render(graphics, image.getWidth(), image.getHeight());
+	}
+
+	private static class TestRenderer implements Renderer
+	{
+		private Overlay[] overlays;
+		private int sets;
+		private int renders;
+
+		@Override
+		public void setOverlays(Overlay[] overlays)
+		{
+			this.overlays = overlays;
+			++sets;
+		}
+
+		@Override
+		public void render(Graphics2D graphics, int width, int height)
+		{
+			++renders;
+		}
+	}
+
+	private static class TestOverlay extends Overlay
+	{
+		TestOverlay(OverlayPosition position, OverlayPriority priority)
+		{
+			super(position, priority);
+		}
+
+		@Override
+		public Dimension render(Graphics2D graphics)
+		{
+			return null;
+		}
+	}
+
+	private static class TestPlugin extends Plugin
+	{
+		private final List<Overlay> overlays;
+
+		TestPlugin(Overlay... overlays)
+		{
+			this.overlays = Arrays.asList(overlays);
+		}
+
+		@Override
+		public Collection<Overlay> getOverlays()
+		{
+			return overlays;
+		}
+
+		@Override
+		protected void startUp() throws Exception
+		{
+		}
+
+		@Override
+		protected void shutDown() throws Exception
+		{
+		}
+	}
+}
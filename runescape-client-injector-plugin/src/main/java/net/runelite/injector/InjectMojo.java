@@ -27,11 +27,19 @@ package net.runelite.injector;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import net.runelite.asm.ClassFile;
 import net.runelite.asm.ClassGroup;
 import net.runelite.deob.clientver.ClientVersion;
 import net.runelite.deob.injection.Injector;
 import net.runelite.deob.util.JarUtil;
+import net.runelite.rs.api.Client;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -55,6 +63,28 @@ public class InjectMojo extends AbstractMojo
 	@Parameter(defaultValue = "${net.runelite.rs:vanilla:jar}", readonly = true, required = true)
 	private String vanillaPath;
 
+	/**
+	 * number of threads to write classes with, 0 for one per processor
+	 */
+	@Parameter(property = "injector.threads", defaultValue = "0")
+	private int threads;
+
+	/**
+	 * verify the data flow of every nth written class, 0 to disable
+	 */
+	@Parameter(property = "injector.verifyEvery", defaultValue = "1")
+	private int verifyEvery;
+
+	/**
+	 * skip injection when the inputs are unchanged, and only write
+	 * classes which changed since the last injection
+	 */
+	@Parameter(property = "injector.incremental", defaultValue = "true")
+	private boolean incremental;
+
+	@Parameter(defaultValue = "${project.build.directory}/injector.cache")
+	private File cacheFile;
+
 	@Override
 	public void execute() throws MojoExecutionException, MojoFailureException
 	{
@@ -73,6 +103,42 @@ public class InjectMojo extends AbstractMojo
 
 		log.info("Vanilla client version " + version);
 
+		InjectorCache cache = null;
+		String fingerprint = null;
+
+		if (incremental)
+		{
+			try
+			{
+				// the injector, api, and this plugin are fingerprinted too, changes to any change the output
+				fingerprint = InjectorCache.fingerprint(
+					new File(rsClientPath),
+					new File(vanillaPath),
+					InjectorCache.getLocation(Injector.class),
+					InjectorCache.getLocation(Client.class),
+					InjectorCache.getLocation(InjectMojo.class)
+				);
+				cache = new InjectorCache(cacheFile);
+			}
+			catch (IOException ex)
+			{
+				throw new MojoExecutionException("Unable to read injector cache", ex);
+			}
+
+			try
+			{
+				if (cache.isUpToDate(fingerprint, outputDirectory))
+				{
+					log.info("Injected classes are up to date");
+					return;
+				}
+			}
+			catch (IOException ex)
+			{
+				throw new MojoExecutionException("Unable to read injected classes", ex);
+			}
+		}
+
 		ClassGroup rs;
 		ClassGroup vanilla;
 
@@ -89,29 +155,97 @@ public class InjectMojo extends AbstractMojo
 		Injector injector = new Injector(rs, vanilla);
 		injector.inject();
 
+		int written;
 		try
 		{
-			writeClasses(vanilla, outputDirectory);
+			written = writeClasses(vanilla, outputDirectory, cache, fingerprint);
 		}
 		catch (IOException ex)
 		{
 			throw new MojoExecutionException("Unable to write classes", ex);
 		}
 
-		log.info("Injector wrote " + vanilla.getClasses().size() + " classes");
+		log.info("Injector wrote " + written + " of " + vanilla.getClasses().size() + " classes");
 	}
 
-	private void writeClasses(ClassGroup group, File outputDirectory) throws IOException
+	/**
+	 * Write the classes of the group which changed since the last injection
+	 *
+	 * @return the number of classes written
+	 */
+	private int writeClasses(ClassGroup group, File outputDirectory, InjectorCache cache, String fingerprint) throws IOException
 	{
-		for (ClassFile cf : group.getClasses())
+		ExecutorService executor = Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+		try
 		{
-			File classFile = getClassFile(outputDirectory, cf);
-			byte[] classData = JarUtil.writeClass(group, cf);
+			Map<String, String> hashes = new LinkedHashMap<>();
+			Map<String, String> fileHashes = new LinkedHashMap<>();
+			List<ClassFile> classes = new ArrayList<>();
 
-			try (FileOutputStream fout = new FileOutputStream(classFile, false))
+			if (cache != null)
 			{
-				fout.write(classData);
+				String hierarchy = InjectorCache.hierarchy(group);
+
+				List<Future<String>> futures = new ArrayList<>();
+				for (ClassFile cf : group.getClasses())
+				{
+					futures.add(executor.submit(() -> InjectorCache.hash(cf, hierarchy)));
+				}
+
+				for (int i = 0; i < futures.size(); ++i)
+				{
+					ClassFile cf = group.getClasses().get(i);
+					String hash = JarUtil.await(futures.get(i));
+
+					hashes.put(cf.getName(), hash);
+
+					if (cache.isCurrent(cf.getName(), hash, getClassFile(outputDirectory, cf)))
+					{
+						fileHashes.put(cf.getName(), cache.getFileHash(cf.getName()));
+					}
+					else
+					{
+						classes.add(cf);
+					}
+				}
+
+				// an interrupted write must not leave the old classes looking up to date
+				cache.invalidate();
+			}
+			else
+			{
+				classes.addAll(group.getClasses());
+			}
+
+			List<Future<byte[]>> data = JarUtil.writeClasses(group, classes, executor, verifyEvery);
+
+			for (int i = 0; i < classes.size(); ++i)
+			{
+				ClassFile cf = classes.get(i);
+				File classFile = getClassFile(outputDirectory, cf);
+				byte[] classData = JarUtil.await(data.get(i));
+
+				try (FileOutputStream fout = new FileOutputStream(classFile, false))
+				{
+					fout.write(classData);
+				}
+
+				if (cache != null)
+				{
+					fileHashes.put(cf.getName(), InjectorCache.hash(classData));
+				}
 			}
+
+			if (cache != null)
+			{
+				cache.save(fingerprint, hashes, fileHashes);
+			}
+
+			return classes.size();
+		}
+		finally
+		{
+			executor.shutdownNow();
 		}
 	}
 
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.injector;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import net.runelite.asm.ClassFile;
+import net.runelite.asm.ClassGroup;
+import org.objectweb.asm.util.TraceClassVisitor;
+
+/**
+ * Remembers the inputs and injected classes of the last injection, so
+ * unchanged builds can skip injecting and writing classes
+ */
+class InjectorCache
+{
+	private static final String FINGERPRINT = "fingerprint";
+	private static final String CLASS_PREFIX = "class.";
+	private static final String FILE_PREFIX = "file.";
+
+	private final File file;
+	private final Properties properties = new Properties();
+
+	InjectorCache(File file) throws IOException
+	{
+		this.file = file;
+
+		if (file.exists())
+		{
+			try (InputStream in = new FileInputStream(file))
+			{
+				properties.load(in);
+			}
+		}
+	}
+
+	/**
+	 * @return whether the last injection had the same inputs and all of
+	 * its classes are still in the output directory, unchanged
+	 */
+	boolean isUpToDate(String fingerprint, File outputDirectory) throws IOException
+	{
+		if (!fingerprint.equals(properties.getProperty(FINGERPRINT)))
+		{
+			return false;
+		}
+
+		for (String key : properties.stringPropertyNames())
+		{
+			if (key.startsWith(FILE_PREFIX))
+			{
+				String className = key.substring(FILE_PREFIX.length());
+				if (!isWritten(className, new File(outputDirectory, className + ".class")))
+				{
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return whether the class had the same hash when it was last written,
+	 * and the file it was written to is unchanged
+	 */
+	boolean isCurrent(String className, String hash, File classFile) throws IOException
+	{
+		return hash.equals(getHash(className)) && isWritten(className, classFile);
+	}
+
+	private boolean isWritten(String className, File classFile) throws IOException
+	{
+		String fileHash = getFileHash(className);
+		return fileHash != null && classFile.exists() && fileHash.equals(hash(classFile));
+	}
+
+	/**
+	 * @return the hash of the class when it was last written
+	 */
+	String getHash(String className)
+	{
+		return properties.getProperty(CLASS_PREFIX + className);
+	}
+
+	/**
+	 * @return the hash of the file the class was last written to
+	 */
+	String getFileHash(String className)
+	{
+		return properties.getProperty(FILE_PREFIX + className);
+	}
+
+	/**
+	 * Forget the last injection, until {@link #save} is called
+	 */
+	void invalidate()
+	{
+		properties.clear();
+		file.delete();
+	}
+
+	/**
+	 * Remember an injection
+	 *
+	 * @param fingerprint fingerprint of the inputs
+	 * @param hashes hashes of the classes, by name
+	 * @param fileHashes hashes of the files the classes were written to, by name
+	 */
+	void save(String fingerprint, Map<String, String> hashes, Map<String, String> fileHashes) throws IOException
+	{
+		properties.clear();
+		properties.setProperty(FINGERPRINT, fingerprint);
+		for (Map.Entry<String, String> entry : hashes.entrySet())
+		{
+			properties.setProperty(CLASS_PREFIX + entry.getKey(), entry.getValue());
+		}
+		for (Map.Entry<String, String> entry : fileHashes.entrySet())
+		{
+			properties.setProperty(FILE_PREFIX + entry.getKey(), entry.getValue());
+		}
+
+		file.getParentFile().mkdirs();
+		try (OutputStream out = new FileOutputStream(file))
+		{
+			properties.store(out, null);
+		}
+	}
+
+	/**
+	 * Fingerprint files, and the contents of directories
+	 */
+	static String fingerprint(File... files) throws IOException
+	{
+		Hasher hasher = Hashing.sha256().newHasher();
+		for (File file : files)
+		{
+			hash(hasher, file);
+		}
+		return hasher.hash().toString();
+	}
+
+	private static void hash(Hasher hasher, File file) throws IOException
+	{
+		hasher.putString(file.getName(), StandardCharsets.UTF_8);
+
+		if (file.isDirectory())
+		{
+			File[] children = file.listFiles();
+			Arrays.sort(children);
+			for (File child : children)
+			{
+				hash(hasher, child);
+			}
+		}
+		else
+		{
+			hasher.putBytes(Files.hash(file, Hashing.sha256()).asBytes());
+		}
+	}
+
+	static String hash(byte[] data)
+	{
+		return Hashing.sha256().hashBytes(data).toString();
+	}
+
+	private static String hash(File file) throws IOException
+	{
+		return Files.hash(file, Hashing.sha256()).toString();
+	}
+
+	/**
+	 * @return the jar or directory the class was loaded from
+	 */
+	static File getLocation(Class<?> clazz) throws IOException
+	{
+		try
+		{
+			return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI());
+		}
+		catch (URISyntaxException ex)
+		{
+			throw new IOException(ex);
+		}
+	}
+
+	/**
+	 * Hash the class hierarchy of a group. Frames are computed from it,
+	 * so a class must be rewritten if it changes, even if the class didn't.
+	 */
+	static String hierarchy(ClassGroup group)
+	{
+		Hasher hasher = Hashing.sha256().newHasher();
+		for (ClassFile cf : group.getClasses())
+		{
+			hasher.putString(cf.getName(), StandardCharsets.UTF_8);
+			hasher.putString(String.valueOf(cf.getSuperName()), StandardCharsets.UTF_8);
+			for (net.runelite.asm.pool.Class i : cf.getInterfaces().getInterfaces())
+			{
+				hasher.putString(i.getName(), StandardCharsets.UTF_8);
+			}
+		}
+		return hasher.hash().toString();
+	}
+
+	/**
+	 * Hash the contents of a class, without computing its frames
+	 */
+	static String hash(ClassFile cf, String hierarchy)
+	{
+		StringWriter writer = new StringWriter();
+		writer.write(hierarchy);
+		cf.accept(new TraceClassVisitor(new PrintWriter(writer)));
+		return Hashing.sha256().hashString(writer.toString(), StandardCharsets.UTF_8).toString();
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2017, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.injector;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class InjectorCacheTest
+{
+	private static final byte[] CLASS_A = "class a".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] CLASS_B = "class b".getBytes(StandardCharsets.UTF_8);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File cacheFile;
+	private File out;
+
+	@Before
+	public void before() throws IOException
+	{
+		cacheFile = new File(folder.getRoot(), "injector.cache");
+		out = folder.newFolder("classes");
+	}
+
+	@Test
+	public void testFingerprint() throws IOException
+	{
+		File jar = folder.newFile("client.jar");
+		File dir = folder.newFolder("api");
+		Files.write(CLASS_A, jar);
+		Files.write(CLASS_B, new File(dir, "Client.class"));
+
+		String fingerprint = InjectorCache.fingerprint(jar, dir);
+		Assert.assertEquals(fingerprint, InjectorCache.fingerprint(jar, dir));
+
+		Files.write(CLASS_B, jar);
+		String changed = InjectorCache.fingerprint(jar, dir);
+		Assert.assertNotEquals(fingerprint, changed);
+
+		Files.write(CLASS_A, new File(dir, "Actor.class"));
+		Assert.assertNotEquals(changed, InjectorCache.fingerprint(jar, dir));
+	}
+
+	@Test
+	public void testUpToDate() throws IOException
+	{
+		write();
+
+		InjectorCache cache = new InjectorCache(cacheFile);
+		Assert.assertTrue(cache.isUpToDate("inputs", out));
+		Assert.assertFalse(cache.isUpToDate("other inputs", out));
+	}
+
+	@Test
+	public void testFileChanged() throws IOException
+	{
+		write();
+
+		Files.write(CLASS_B, new File(out, "a.class"));
+
+		InjectorCache cache = new InjectorCache(cacheFile);
+		Assert.assertFalse(cache.isUpToDate("inputs", out));
+	}
+
+	@Test
+	public void testFileDeleted() throws IOException
+	{
+		write();
+
+		Assert.assertTrue(new File(out, "b.class").delete());
+
+		InjectorCache cache = new InjectorCache(cacheFile);
+		Assert.assertFalse(cache.isUpToDate("inputs", out));
+	}
+
+	@Test
+	public void testChangedClasses() throws IOException
+	{
+		write();
+
+		// only b changed, so only b is rewritten
+		InjectorCache cache = new InjectorCache(cacheFile);
+		Assert.assertTrue(cache.isCurrent("a", "hash a", new File(out, "a.class")));
+		Assert.assertFalse(cache.isCurrent("b", "new hash b", new File(out, "b.class")));
+		Assert.assertFalse(cache.isCurrent("c", "hash c", new File(out, "c.class")));
+
+		// a class changed in the output directory is rewritten too
+		Files.write(CLASS_B, new File(out, "a.class"));
+		Assert.assertFalse(cache.isCurrent("a", "hash a", new File(out, "a.class")));
+	}
+
+	@Test
+	public void testInvalidate() throws IOException
+	{
+		write();
+
+		InjectorCache cache = new InjectorCache(cacheFile);
+		cache.invalidate();
+
+		Assert.assertFalse(cacheFile.exists());
+		Assert.assertFalse(new InjectorCache(cacheFile).isUpToDate("inputs", out));
+	}
+
+	private void write() throws IOException
+	{
+		Files.write(CLASS_A, new File(out, "a.class"));
+		Files.write(CLASS_B, new File(out, "b.class"));
+
+		Map<String, String> hashes = ImmutableMap.of("a", "hash a", "b", "hash b");
+		Map<String, String> fileHashes = ImmutableMap.of("a", InjectorCache.hash(CLASS_A), "b", InjectorCache.hash(CLASS_B));
+
+		InjectorCache cache = new InjectorCache(cacheFile);
+		cache.save("inputs", hashes, fileHashes);
+	}
+}